@@ -0,0 +1,178 @@
+package no.delalt.back.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import no.delalt.back.model.dto.output.CacheStatsDTO;
+import no.delalt.back.model.enums.ImageSizeEnum;
+import no.delalt.back.model.object.ImageMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Caches image metadata and the content of small images in memory.
+ * Caffeine's W-TinyLFU policy only admits a new entry if it is requested more often
+ * than the entry it would evict, so a burst of one-off requests can not flush the
+ * thumbnails that are requested all the time.
+ */
+@Component
+public class ImageCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    ImageCache.class
+  );
+  private final Cache<String, ImageMetadata> metadataCache;
+  private final Cache<String, byte[]> contentCache;
+  private final long maxEntryBytes;
+
+  public ImageCache(
+    @Value("${image.cache.max-bytes:67108864}") long maxBytes,
+    @Value("${image.cache.max-entry-bytes:262144}") long maxEntryBytes,
+    @Value("${image.cache.max-metadata-entries:10000}") long maxMetadataEntries
+  ) {
+    this.maxEntryBytes = maxEntryBytes;
+    metadataCache =
+      Caffeine
+        .newBuilder()
+        .maximumSize(maxMetadataEntries)
+        .recordStats()
+        .build();
+    contentCache =
+      Caffeine
+        .newBuilder()
+        .maximumWeight(maxBytes)
+        .weigher((String key, byte[] content) -> content.length)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Retrieves the cached metadata of an image.
+   *
+   * @param  imageID  the ID of the image
+   * @return          the metadata of the image, or null if it is not cached
+   */
+  public ImageMetadata getMetadata(String imageID) {
+    return metadataCache.getIfPresent(imageID);
+  }
+
+  /**
+   * Puts the metadata of an image into the cache.
+   *
+   * @param  imageID   the ID of the image
+   * @param  metadata  the metadata of the image
+   */
+  public void putMetadata(String imageID, ImageMetadata metadata) {
+    metadataCache.put(imageID, metadata);
+  }
+
+  /**
+   * Retrieves the cached content of an image or one of its variants.
+   *
+   * @param  contentHash  the content hash of the original image
+   * @param  size         the size of the variant, or null for the original
+   * @return              the bytes of the content, or null if they are not cached
+   */
+  public byte[] getContent(String contentHash, ImageSizeEnum size) {
+    return contentCache.getIfPresent(contentKey(contentHash, size));
+  }
+
+  /**
+   * Checks if content of the given length is small enough to be cached.
+   * Large originals are streamed from disk instead, so that one of them can not
+   * evict many of the small, frequently requested thumbnails.
+   *
+   * @param  length  the length of the content in bytes
+   * @return         true if the content should be cached, false otherwise
+   */
+  public boolean admits(long length) {
+    return length >= 0 && length <= maxEntryBytes;
+  }
+
+  /**
+   * Puts the content of an image or one of its variants into the cache.
+   *
+   * @param  contentHash  the content hash of the original image
+   * @param  size         the size of the variant, or null for the original
+   * @param  content      the bytes of the content
+   */
+  public void putContent(
+    String contentHash,
+    ImageSizeEnum size,
+    byte[] content
+  ) {
+    if (admits(content.length)) {
+      contentCache.put(contentKey(contentHash, size), content);
+    }
+  }
+
+  /**
+   * Removes the metadata of the given images from the cache.
+   *
+   * @param  imageIDs  the IDs of the images
+   */
+  public void invalidateMetadata(Collection<String> imageIDs) {
+    metadataCache.invalidateAll(imageIDs);
+  }
+
+  /**
+   * Removes the content of an image and all of its variants from the cache.
+   *
+   * @param  contentHash  the content hash of the original image
+   */
+  public void invalidateContent(String contentHash) {
+    contentCache.invalidate(contentKey(contentHash, null));
+    for (ImageSizeEnum size : ImageSizeEnum.values()) {
+      contentCache.invalidate(contentKey(contentHash, size));
+    }
+  }
+
+  /**
+   * Retrieves the hit, miss and eviction statistics of the metadata cache.
+   *
+   * @return  the statistics of the metadata cache
+   */
+  public CacheStatsDTO getMetadataStats() {
+    return new CacheStatsDTO(
+      metadataCache.estimatedSize(),
+      metadataCache.stats()
+    );
+  }
+
+  /**
+   * Retrieves the hit, miss and eviction statistics of the content cache.
+   *
+   * @return  the statistics of the content cache
+   */
+  public CacheStatsDTO getContentStats() {
+    return new CacheStatsDTO(
+      contentCache.estimatedSize(),
+      contentCache.stats()
+    );
+  }
+
+  /**
+   * Logs the statistics of the caches, which are used to size the byte budget.
+   *
+   * @Scheduled(fixedDelayString = "${image.cache.stats-interval:PT15M}")
+   */
+  @Scheduled(fixedDelayString = "${image.cache.stats-interval:PT15M}")
+  public void logStats() {
+    LOGGER.info("Image metadata cache: " + getMetadataStats());
+    LOGGER.info("Image content cache: " + getContentStats());
+  }
+
+  /**
+   * Creates the cache key of an image or one of its variants.
+   *
+   * @param  contentHash  the content hash of the original image
+   * @param  size         the size of the variant, or null for the original
+   * @return              the cache key
+   */
+  private static String contentKey(String contentHash, ImageSizeEnum size) {
+    return size == null ? contentHash : contentHash + "-" + size.getValue();
+  }
+}
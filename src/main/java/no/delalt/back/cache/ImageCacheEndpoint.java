@@ -0,0 +1,30 @@
+package no.delalt.back.cache;
+
+import no.delalt.back.model.dto.output.ImageCacheStatsDTO;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "imagecache")
+public class ImageCacheEndpoint {
+  private final ImageCache imageCache;
+
+  public ImageCacheEndpoint(ImageCache imageCache) {
+    this.imageCache = imageCache;
+  }
+
+  /**
+   * Retrieves the statistics of the image caches, which are used to size the byte budget.
+   * Served on the management port only, at /actuator/imagecache.
+   *
+   * @return  the statistics of the metadata and content caches
+   */
+  @ReadOperation
+  public ImageCacheStatsDTO stats() {
+    return new ImageCacheStatsDTO(
+      imageCache.getMetadataStats(),
+      imageCache.getContentStats()
+    );
+  }
+}
@@ -0,0 +1,93 @@
+package no.delalt.back.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the invalidations of the keys of a cache, so that a value loaded before an invalidation
+ * is not put into the cache after it. A loader stamps the key before it reads the database, and
+ * the value is only cached if the key was not invalidated since.
+ *
+ * @param <K>  the type of the keys
+ */
+final class InvalidationTracker<K> {
+  private final Cache<K, AtomicLong> generations;
+  private final AtomicLong allGeneration = new AtomicLong();
+
+  InvalidationTracker(long maximumSize, Duration expireAfterAccess) {
+    generations =
+      CacheBuilder
+        .newBuilder()
+        .expireAfterAccess(expireAfterAccess)
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  /**
+   * Stamps a key before its value is loaded.
+   *
+   * @param  key  the key to load
+   * @return      the stamp to pass to putIfCurrent
+   */
+  Stamp stamp(K key) {
+    AtomicLong generation = counter(key);
+    return new Stamp(generation, generation.get(), allGeneration.get());
+  }
+
+  /**
+   * Puts a loaded value into the cache if its key was not invalidated since it was stamped.
+   * The stamp is checked again after the put, so that an invalidation racing with the put
+   * does not leave the value behind.
+   *
+   * @param  cache  the cache to put the value into
+   * @param  key    the key of the value
+   * @param  value  the loaded value
+   * @param  stamp  the stamp taken before the value was loaded
+   */
+  <V> void putIfCurrent(Cache<K, V> cache, K key, V value, Stamp stamp) {
+    if (!isCurrent(key, stamp)) {
+      return;
+    }
+    cache.put(key, value);
+    if (!isCurrent(key, stamp)) {
+      cache.asMap().remove(key, value);
+    }
+  }
+
+  /**
+   * Records an invalidation of a key. Must be called before the key is removed from the cache.
+   *
+   * @param  key  the invalidated key
+   */
+  void invalidate(K key) {
+    counter(key).incrementAndGet();
+  }
+
+  /**
+   * Records an invalidation of all keys. Must be called before the cache is cleared.
+   */
+  void invalidateAll() {
+    allGeneration.incrementAndGet();
+  }
+
+  /**
+   * Checks if a key was not invalidated since it was stamped. A counter that was evicted
+   * and created again counts as an invalidation.
+   */
+  private boolean isCurrent(K key, Stamp stamp) {
+    return (
+      generations.getIfPresent(key) == stamp.counter() &&
+      stamp.counter().get() == stamp.generation() &&
+      allGeneration.get() == stamp.allGeneration()
+    );
+  }
+
+  private AtomicLong counter(K key) {
+    return generations.asMap().computeIfAbsent(key, k -> new AtomicLong());
+  }
+
+  record Stamp(AtomicLong counter, long generation, long allGeneration) {}
+}
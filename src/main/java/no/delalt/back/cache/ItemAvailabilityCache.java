@@ -0,0 +1,98 @@
+package no.delalt.back.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import no.delalt.back.model.object.ItemAvailability;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+@Component
+public class ItemAvailabilityCache {
+  private static final String BOOKED_SUFFIX = ":booked";
+  private static final String PENDING_SUFFIX = ":pending";
+  private final Cache<String, ItemAvailability> cache;
+  private final InvalidationTracker<String> invalidationTracker;
+
+  public ItemAvailabilityCache(
+    @Value("${item.availability.cache.maximum-size:10000}") long maximumSize,
+    @Value(
+      "${item.availability.cache.expire-after-write:PT10M}"
+    ) Duration expireAfterWrite
+  ) {
+    cache =
+      CacheBuilder
+        .newBuilder()
+        .expireAfterWrite(expireAfterWrite)
+        .maximumSize(maximumSize)
+        .build();
+    invalidationTracker =
+      new InvalidationTracker<>(maximumSize, expireAfterWrite);
+  }
+
+  /**
+   * Retrieves the availability of an item. An availability computed before today is
+   * computed again, since its days no longer start today. An availability that is being
+   * computed while the item is invalidated is not cached.
+   *
+   * @param  itemID           the ID of the item
+   * @param  includesPending  whether pending requests count as busy days
+   * @param  loader           computes the availability of the item on a miss
+   * @return                  the availability of the item, starting today
+   */
+  public ItemAvailability get(
+    String itemID,
+    boolean includesPending,
+    Supplier<ItemAvailability> loader
+  ) {
+    String key = key(itemID, includesPending);
+    ItemAvailability availability = cache.getIfPresent(key);
+    if (
+      availability == null || !availability.startDate().equals(LocalDate.now())
+    ) {
+      InvalidationTracker.Stamp stamp = invalidationTracker.stamp(key);
+      availability = loader.get();
+      invalidationTracker.putIfCurrent(cache, key, availability, stamp);
+    }
+    return availability;
+  }
+
+  /**
+   * Removes the availability of an item after its agreements or requests have changed.
+   * The availability is removed at once, and again when the current transaction completes,
+   * so that an availability computed before the change became visible is not kept.
+   *
+   * @param  itemID  the ID of the item
+   */
+  public void invalidate(String itemID) {
+    invalidateNow(itemID);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            invalidateNow(itemID);
+          }
+        }
+      );
+    }
+  }
+
+  private void invalidateNow(String itemID) {
+    for (boolean includesPending : new boolean[] { false, true }) {
+      String key = key(itemID, includesPending);
+      invalidationTracker.invalidate(key);
+      cache.invalidate(key);
+    }
+  }
+
+  private static String key(String itemID, boolean includesPending) {
+    return itemID + (includesPending ? PENDING_SUFFIX : BOOKED_SUFFIX);
+  }
+}
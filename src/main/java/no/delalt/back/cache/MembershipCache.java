@@ -0,0 +1,168 @@
+package no.delalt.back.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import no.delalt.back.model.object.MembershipSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Caches the memberships of users for authorization checks on reads.
+ * Invalidations only reach the cache of the instance making the change, so entries
+ * expire quickly, and writes check the memberships against the database instead.
+ */
+@Component
+public class MembershipCache {
+  private static final String MEMO_ATTRIBUTE_PREFIX =
+    MembershipCache.class.getName() + ".";
+  private final Cache<String, MembershipSnapshot> cache;
+  private final InvalidationTracker<String> invalidationTracker;
+
+  public MembershipCache(
+    @Value("${membership.cache.maximum-size:50000}") long maximumSize,
+    @Value("${membership.cache.expire-after-write:PT30S}") Duration expireAfterWrite
+  ) {
+    cache =
+      CacheBuilder
+        .newBuilder()
+        .expireAfterWrite(expireAfterWrite)
+        .maximumSize(maximumSize)
+        .build();
+    invalidationTracker =
+      new InvalidationTracker<>(maximumSize, expireAfterWrite);
+  }
+
+  /**
+   * Retrieves the memberships of a user. The snapshot is remembered for the rest of the
+   * current request, so repeated checks within one request are answered without a lookup.
+   *
+   * @param  userID  the ID of the user
+   * @param  loader  loads the memberships of the user from the database on a miss
+   * @return         the memberships of the user
+   */
+  public MembershipSnapshot get(
+    String userID,
+    Function<String, MembershipSnapshot> loader
+  ) {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    String memoAttribute = MEMO_ATTRIBUTE_PREFIX + userID;
+    if (requestAttributes != null) {
+      Object memo = requestAttributes.getAttribute(
+        memoAttribute,
+        RequestAttributes.SCOPE_REQUEST
+      );
+      if (memo instanceof MembershipSnapshot snapshot) {
+        return snapshot;
+      }
+    }
+
+    MembershipSnapshot snapshot = cache.getIfPresent(userID);
+    if (snapshot == null) {
+      InvalidationTracker.Stamp stamp = invalidationTracker.stamp(userID);
+      snapshot = loader.apply(userID);
+      // Memberships read inside a transaction that changed them are only kept for the request
+      if (!TransactionSynchronizationManager.hasResource(memoAttribute)) {
+        invalidationTracker.putIfCurrent(cache, userID, snapshot, stamp);
+      }
+    }
+
+    if (requestAttributes != null) {
+      requestAttributes.setAttribute(
+        memoAttribute,
+        snapshot,
+        RequestAttributes.SCOPE_REQUEST
+      );
+    }
+    return snapshot;
+  }
+
+  /**
+   * Removes the memberships of a user after they have changed. The snapshot is removed at once,
+   * and again when the current transaction completes, so that no snapshot read before the change
+   * became visible, or of a transaction that was rolled back, outlives it. A snapshot that is
+   * being loaded while the memberships are invalidated is not cached.
+   *
+   * @param  userID  the ID of the user
+   */
+  public void invalidate(String userID) {
+    String memoAttribute = MEMO_ATTRIBUTE_PREFIX + userID;
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes != null) {
+      requestAttributes.removeAttribute(
+        memoAttribute,
+        RequestAttributes.SCOPE_REQUEST
+      );
+    }
+    invalidateNow(userID);
+
+    if (
+      !TransactionSynchronizationManager.isSynchronizationActive() ||
+      TransactionSynchronizationManager.hasResource(memoAttribute)
+    ) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(memoAttribute, userID);
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          TransactionSynchronizationManager.unbindResourceIfPossible(
+            memoAttribute
+          );
+          invalidateNow(userID);
+        }
+      }
+    );
+  }
+
+  /**
+   * Removes the memberships of all users from the cache and from the memo of the current request,
+   * and again once the current transaction completes.
+   * Used when a change affects the memberships of many users at once, such as a community being deleted.
+   */
+  public void invalidateAll() {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes != null) {
+      for (String attribute : requestAttributes.getAttributeNames(
+        RequestAttributes.SCOPE_REQUEST
+      )) {
+        if (attribute.startsWith(MEMO_ATTRIBUTE_PREFIX)) {
+          requestAttributes.removeAttribute(
+            attribute,
+            RequestAttributes.SCOPE_REQUEST
+          );
+        }
+      }
+    }
+    invalidateAllNow();
+
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          invalidateAllNow();
+        }
+      }
+    );
+  }
+
+  private void invalidateNow(String userID) {
+    invalidationTracker.invalidate(userID);
+    cache.invalidate(userID);
+  }
+
+  private void invalidateAllNow() {
+    invalidationTracker.invalidateAll();
+    cache.invalidateAll();
+  }
+}
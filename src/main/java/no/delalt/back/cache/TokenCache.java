@@ -2,40 +2,95 @@ package no.delalt.back.cache;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
 
 @Component
 public class TokenCache {
-  private final Cache<String, String> cache;
+  private static final List<GrantedAuthority> AUTHORITIES = List.of(
+    new SimpleGrantedAuthority("USER")
+  );
+  private final Cache<HashCode, CachedAuthentication> cache;
 
-  public TokenCache() {
+  public TokenCache(
+    @Value("${token.cache.maximum-size:100000}") long maximumSize,
+    @Value("${token.cache.expire-after-access:PT1H}") Duration expireAfterAccess
+  ) {
     cache =
       CacheBuilder
         .newBuilder()
-        .expireAfterWrite(15, TimeUnit.MINUTES)
-        .maximumSize(1000)
+        .expireAfterAccess(expireAfterAccess)
+        .maximumSize(maximumSize)
         .build();
   }
 
   /**
-   * Puts a token and its associated account ID into the cache.
+   * Puts the authentication of a verified token into the cache until the token expires.
    *
-   * @param  token     the token to be stored in the cache
-   * @param  accountID the account ID associated with the token
+   * @param  token      the verified token
+   * @param  accountID  the account ID associated with the token
+   * @param  expiresAt  the expiry of the token, or null if it does not expire
+   * @return            the authentication of the token
    */
-  public void put(String token, String accountID) {
-    cache.put(token, accountID);
+  public Authentication put(String token, String accountID, Date expiresAt) {
+    Authentication authentication = new PreAuthenticatedAuthenticationToken(
+      accountID,
+      null,
+      AUTHORITIES
+    );
+    long expiresAtMillis = expiresAt != null
+      ? expiresAt.getTime()
+      : Long.MAX_VALUE;
+    cache.put(
+      digest(token),
+      new CachedAuthentication(authentication, expiresAtMillis)
+    );
+    return authentication;
   }
 
   /**
-   * Retrieves the value associated with the given token from the cache.
+   * Retrieves the authentication of a token from the cache.
+   * Entries are keyed by a digest of the token, so the token itself is not kept in memory.
    *
-   * @param  token  the token to retrieve the value for
-   * @return        the value associated with the token, or null if no value is found
+   * @param  token  the token to retrieve the authentication for
+   * @return        the authentication of the token, or null if it is not cached or has expired
    */
-  public String get(String token) {
-    return cache.getIfPresent(token);
+  public Authentication get(String token) {
+    HashCode key = digest(token);
+    CachedAuthentication cached = cache.getIfPresent(key);
+    if (cached == null) {
+      return null;
+    }
+    if (cached.expiresAtMillis() <= System.currentTimeMillis()) {
+      cache.invalidate(key);
+      return null;
+    }
+    return cached.authentication();
   }
+
+  /**
+   * Calculates the digest used as the cache key of a token.
+   *
+   * @param  token  the token
+   * @return        the SHA-256 digest of the token
+   */
+  private static HashCode digest(String token) {
+    return Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+  }
+
+  private record CachedAuthentication(
+    Authentication authentication,
+    long expiresAtMillis
+  ) {}
 }
@@ -0,0 +1,112 @@
+package no.delalt.back.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import no.delalt.back.model.object.UserSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+public class UserSnapshotCache {
+  private static final String MEMO_ATTRIBUTE_PREFIX =
+    UserSnapshotCache.class.getName() + ".";
+  private final Cache<String, UserSnapshot> cache;
+  private final InvalidationTracker<String> invalidationTracker;
+
+  public UserSnapshotCache(
+    @Value("${user.cache.maximum-size:100000}") long maximumSize,
+    @Value("${user.cache.expire-after-write:PT30S}") Duration expireAfterWrite
+  ) {
+    cache =
+      CacheBuilder
+        .newBuilder()
+        .expireAfterWrite(expireAfterWrite)
+        .maximumSize(maximumSize)
+        .build();
+    invalidationTracker =
+      new InvalidationTracker<>(maximumSize, expireAfterWrite);
+  }
+
+  /**
+   * Retrieves the snapshot of a user. The snapshot is remembered for the rest of the
+   * current request, so the user is resolved at most once per request.
+   *
+   * @param  userID  the ID of the user
+   * @param  loader  loads the snapshot of the user from the database on a miss
+   * @return         the snapshot of the user
+   */
+  public UserSnapshot get(
+    String userID,
+    Function<String, UserSnapshot> loader
+  ) {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    String memoAttribute = MEMO_ATTRIBUTE_PREFIX + userID;
+    if (requestAttributes != null) {
+      Object memo = requestAttributes.getAttribute(
+        memoAttribute,
+        RequestAttributes.SCOPE_REQUEST
+      );
+      if (memo instanceof UserSnapshot snapshot) {
+        return snapshot;
+      }
+    }
+
+    UserSnapshot snapshot = cache.getIfPresent(userID);
+    if (snapshot == null) {
+      InvalidationTracker.Stamp stamp = invalidationTracker.stamp(userID);
+      snapshot = loader.apply(userID);
+      invalidationTracker.putIfCurrent(cache, userID, snapshot, stamp);
+    }
+
+    if (requestAttributes != null) {
+      requestAttributes.setAttribute(
+        memoAttribute,
+        snapshot,
+        RequestAttributes.SCOPE_REQUEST
+      );
+    }
+    return snapshot;
+  }
+
+  /**
+   * Removes the snapshot of a user after the user has changed. The snapshot is removed at once,
+   * and again when the current transaction completes, so that a snapshot read before the change
+   * became visible is not kept. A snapshot that is being loaded while the user is invalidated
+   * is not cached.
+   *
+   * @param  userID  the ID of the user
+   */
+  public void invalidate(String userID) {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes != null) {
+      requestAttributes.removeAttribute(
+        MEMO_ATTRIBUTE_PREFIX + userID,
+        RequestAttributes.SCOPE_REQUEST
+      );
+    }
+    invalidateNow(userID);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            invalidateNow(userID);
+          }
+        }
+      );
+    }
+  }
+
+  private void invalidateNow(String userID) {
+    invalidationTracker.invalidate(userID);
+    cache.invalidate(userID);
+  }
+}
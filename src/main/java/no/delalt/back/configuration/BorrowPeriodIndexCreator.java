@@ -0,0 +1,65 @@
+package no.delalt.back.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Component
+public class BorrowPeriodIndexCreator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    BorrowPeriodIndexCreator.class
+  );
+  private final DataSource dataSource;
+
+  public BorrowPeriodIndexCreator(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Creates the period columns of borrow agreements and borrow requests, which are generated
+   * from the start and end dates, and the GiST indexes used to find overlapping periods.
+   * The index of borrow agreements is an exclusion constraint, so the database itself rejects
+   * two agreements for the same item with overlapping periods.
+   *
+   * @EventListener(ApplicationReadyEvent)
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void createBorrowPeriodIndexes() {
+    String[] statementsSQL = {
+      "CREATE EXTENSION IF NOT EXISTS btree_gist;",
+      "ALTER TABLE public.borrow_request ADD COLUMN IF NOT EXISTS period daterange " +
+      "GENERATED ALWAYS AS (daterange(start_date, end_date, '[]')) STORED;",
+      "CREATE INDEX IF NOT EXISTS borrow_request_pending_period_idx ON public.borrow_request " +
+      "USING gist(item_id, period) WHERE is_processed = false;",
+      "ALTER TABLE public.borrow_agreement ADD COLUMN IF NOT EXISTS period daterange " +
+      "GENERATED ALWAYS AS (daterange(start_date, end_date, '[]')) STORED;",
+      "DO $$ BEGIN " +
+      "IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'borrow_agreement_period_excl') THEN " +
+      "ALTER TABLE public.borrow_agreement ADD CONSTRAINT borrow_agreement_period_excl " +
+      "EXCLUDE USING gist (item_id WITH =, period WITH &&); " +
+      "END IF; END $$;",
+    };
+
+    try (
+      Connection connection = dataSource.getConnection();
+      Statement statement = connection.createStatement()
+    ) {
+      for (String statementSQL : statementsSQL) {
+        statement.execute(statementSQL);
+      }
+    } catch (SQLException e) {
+      LOGGER.error(
+        "An unexpected exception occurred while creating the borrow period indexes. " +
+        "Overlapping borrow agreements for the same item have to be resolved before the exclusion constraint can be added",
+        e
+      );
+    }
+  }
+}
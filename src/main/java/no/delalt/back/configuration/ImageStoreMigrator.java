@@ -0,0 +1,135 @@
+package no.delalt.back.configuration;
+
+import no.delalt.back.storage.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Component
+public class ImageStoreMigrator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    ImageStoreMigrator.class
+  );
+  private static final int FETCH_SIZE = 50;
+  private final DataSource dataSource;
+  private final ImageStore imageStore;
+
+  public ImageStoreMigrator(DataSource dataSource, ImageStore imageStore) {
+    this.dataSource = dataSource;
+    this.imageStore = imageStore;
+  }
+
+  /**
+   * Moves images stored in the legacy image column into the image store,
+   * and drops the column afterwards.
+   *
+   * @EventListener(ApplicationReadyEvent)
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrateLegacyImages() {
+    String findColumnSQL =
+      "SELECT data_type FROM information_schema.columns WHERE table_schema = 'public' AND table_name = 'image' AND column_name = 'image';";
+    String selectSQL =
+      "SELECT image_id, image FROM public.image WHERE content_hash IS NULL AND image IS NOT NULL;";
+    String updateSQL =
+      "UPDATE public.image SET content_hash = ?, size_in_bytes = ? WHERE image_id = ?;";
+    String unlinkSQL =
+      "SELECT lo_unlink(image) FROM public.image WHERE image IS NOT NULL;";
+    String dropColumnSQL = "ALTER TABLE public.image DROP COLUMN image;";
+
+    try (Connection connection = dataSource.getConnection()) {
+      String dataType = findLegacyColumnType(connection, findColumnSQL);
+      if (dataType == null) {
+        return;
+      }
+      boolean isLargeObject = "oid".equals(dataType);
+
+      connection.setAutoCommit(false);
+      try (
+        Statement select = connection.createStatement();
+        PreparedStatement update = connection.prepareStatement(updateSQL)
+      ) {
+        select.setFetchSize(FETCH_SIZE);
+        int migrated = 0;
+
+        try (ResultSet resultSet = select.executeQuery(selectSQL)) {
+          while (resultSet.next()) {
+            byte[] content = readContent(resultSet, isLargeObject);
+            update.setString(1, imageStore.store(content));
+            update.setLong(2, content.length);
+            update.setString(3, resultSet.getString("image_id"));
+            update.executeUpdate();
+            migrated++;
+          }
+        }
+
+        if (isLargeObject) {
+          select.execute(unlinkSQL);
+        }
+        select.execute(dropColumnSQL);
+        connection.commit();
+        LOGGER.info("Moved " + migrated + " images to the image store");
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      LOGGER.error(
+        "An unexpected exception occurred while migrating images to the image store",
+        e
+      );
+    }
+  }
+
+  /**
+   * Finds the data type of the legacy image column.
+   *
+   * @param  connection     the database connection
+   * @param  findColumnSQL  the query selecting the data type of the column
+   * @return                the data type, or null if the column does not exist
+   * @throws SQLException   if the query fails
+   */
+  private static String findLegacyColumnType(
+    Connection connection,
+    String findColumnSQL
+  )
+    throws SQLException {
+    try (
+      Statement statement = connection.createStatement();
+      ResultSet resultSet = statement.executeQuery(findColumnSQL)
+    ) {
+      return resultSet.next() ? resultSet.getString("data_type") : null;
+    }
+  }
+
+  /**
+   * Reads the content of the legacy image column for the current row.
+   *
+   * @param  resultSet      the result set positioned at the row
+   * @param  isLargeObject  true if the column is a large object reference
+   * @return                the content of the image
+   * @throws SQLException   if the content can not be read
+   */
+  private static byte[] readContent(ResultSet resultSet, boolean isLargeObject)
+    throws SQLException {
+    if (!isLargeObject) {
+      return resultSet.getBytes("image");
+    }
+    Blob blob = resultSet.getBlob("image");
+    try {
+      return blob.getBytes(1, (int) blob.length());
+    } finally {
+      blob.free();
+    }
+  }
+}
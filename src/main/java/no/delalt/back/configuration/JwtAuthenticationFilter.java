@@ -11,16 +11,11 @@ import jakarta.servlet.http.HttpServletResponse;
 import no.delalt.back.cache.TokenCache;
 import org.springframework.lang.NonNull;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
-import java.util.List;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
   private static JWTVerifier verifier;
@@ -38,6 +33,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   /**
    * Filters the incoming request and sets the authentication context if a valid token is present in the request header.
+   * Verified tokens are cached until they expire, so a token is only verified once.
    *
    * @param  request       the HTTP servlet request object
    * @param  response      the HTTP servlet response object
@@ -64,13 +60,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     String token = header.substring(7);
-    String accountID = tokenCache.get(token);
+    Authentication authentication = tokenCache.get(token);
 
-    if (accountID == null) {
+    if (authentication == null) {
       try {
         DecodedJWT jwt = verifier.verify(token);
-        accountID = jwt.getClaim("accountID").asString();
-        tokenCache.put(token, accountID);
+        authentication =
+          tokenCache.put(
+            token,
+            jwt.getClaim("accountID").asString(),
+            jwt.getExpiresAt()
+          );
       } catch (Exception e) {
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         response.setContentType("application/json");
@@ -79,14 +79,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       }
     }
 
-    List<GrantedAuthority> authorities = Collections.singletonList(
-      new SimpleGrantedAuthority("USER")
-    );
-    Authentication authentication = new PreAuthenticatedAuthenticationToken(
-      accountID,
-      null,
-      authorities
-    );
     SecurityContextHolder.getContext().setAuthentication(authentication);
     filterChain.doFilter(request, response);
   }
@@ -0,0 +1,58 @@
+package no.delalt.back.configuration;
+
+import no.delalt.back.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Component
+public class SearchIndexCreator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    SearchIndexCreator.class
+  );
+  private final DataSource dataSource;
+
+  public SearchIndexCreator(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Creates the search vector column of items and fills it for items that do not have one,
+   * then creates the full-text index and the trigram index used by item search.
+   *
+   * @EventListener(ApplicationReadyEvent)
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void createSearchIndexes() {
+    String[] statementsSQL = {
+      "ALTER TABLE public.item ADD COLUMN IF NOT EXISTS search_vector tsvector;",
+      "UPDATE public.item SET search_vector = " +
+      ItemRepository.SEARCH_VECTOR +
+      " WHERE search_vector IS NULL;",
+      "CREATE INDEX IF NOT EXISTS item_search_vector_idx ON public.item USING gin(search_vector);",
+      "CREATE EXTENSION IF NOT EXISTS pg_trgm;",
+      "CREATE INDEX IF NOT EXISTS item_title_trgm_idx ON public.item USING gin(title gin_trgm_ops);",
+    };
+
+    try (
+      Connection connection = dataSource.getConnection();
+      Statement statement = connection.createStatement()
+    ) {
+      for (String statementSQL : statementsSQL) {
+        statement.execute(statementSQL);
+      }
+    } catch (SQLException e) {
+      LOGGER.error(
+        "An unexpected exception occurred while creating the search indexes",
+        e
+      );
+    }
+  }
+}
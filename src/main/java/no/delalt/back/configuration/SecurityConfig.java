@@ -1,5 +1,6 @@
 package no.delalt.back.configuration;
 
+import jakarta.servlet.DispatcherType;
 import no.delalt.back.cache.TokenCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -26,15 +27,6 @@ public class SecurityConfig {
   @Value("${not.secret.key}")
   private String secretKey;
 
-  /**
-   * Returns a new instance of the TokenCache class.
-   *
-   * @return  an instance of the TokenCache class
-   */
-  public TokenCache tokenCache() {
-    return new TokenCache();
-  }
-
   /**
    * Creates a new instance of JwtAuthenticationFilter.
    *
@@ -75,18 +67,25 @@ public class SecurityConfig {
   /**
    * Creates a SecurityFilterChain for the HttpSecurity configuration.
    *
-   * @param  http  the HttpSecurity object
-   * @return       the created SecurityFilterChain
+   * @param  http                     the HttpSecurity object
+   * @param  jwtAuthenticationFilter  the filter authenticating requests by their token
+   * @return                          the created SecurityFilterChain
    * @throws Exception  if an error occurs during configuration
    */
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+  public SecurityFilterChain filterChain(
+    HttpSecurity http,
+    JwtAuthenticationFilter jwtAuthenticationFilter
+  )
+    throws Exception {
     http
       .authorizeHttpRequests(
         authz ->
           authz
             .requestMatchers("/auth/login", "/auth/signup", "/error")
             .permitAll()
+            .dispatcherTypeMatchers(DispatcherType.ASYNC)
+            .permitAll()
             .requestMatchers(HttpMethod.GET, "/image/**")
             .permitAll()
             .requestMatchers(HttpMethod.OPTIONS, "/**")
@@ -100,7 +99,7 @@ public class SecurityConfig {
         securityContext -> securityContext.requireExplicitSave(true)
       )
       .addFilterBefore(
-        jwtAuthenticationFilter(tokenCache()),
+        jwtAuthenticationFilter,
         UsernamePasswordAuthenticationFilter.class
       );
 
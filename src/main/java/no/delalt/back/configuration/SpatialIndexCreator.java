@@ -23,20 +23,25 @@ public class SpatialIndexCreator {
   }
 
   /**
-   * Creates a spatial index.
+   * Creates the spatial indexes. Distances in meters are measured on the geography of the
+   * coordinates, so that expression has an index of its own next to the geometry index.
    *
    * @EventListener(ApplicationReadyEvent)
    */
   @EventListener(ApplicationReadyEvent.class)
   public void createSpatialIndex() {
-    String createIndexSQL =
-      "CREATE INDEX IF NOT EXISTS community_coordinates_idx ON public.community USING gist(coordinates);";
+    String[] createIndexSQLs = {
+      "CREATE INDEX IF NOT EXISTS community_coordinates_idx ON public.community USING gist(coordinates);",
+      "CREATE INDEX IF NOT EXISTS community_coordinates_geography_idx ON public.community USING gist(CAST(coordinates AS geography));",
+    };
 
     try (
       Connection connection = dataSource.getConnection();
       Statement statement = connection.createStatement()
     ) {
-      statement.execute(createIndexSQL);
+      for (String createIndexSQL : createIndexSQLs) {
+        statement.execute(createIndexSQL);
+      }
     } catch (SQLException e) {
       LOGGER.error(
         "An unexpected exception occurred while creating a spatial index",
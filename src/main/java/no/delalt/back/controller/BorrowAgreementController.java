@@ -2,11 +2,15 @@ package no.delalt.back.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import no.delalt.back.configuration.validation.ValidID;
 import no.delalt.back.model.dto.input.RatingStatusDTO;
 import no.delalt.back.model.dto.output.BorrowAgreementDTO;
 import no.delalt.back.model.dto.output.BorrowDatesDTO;
+import no.delalt.back.model.dto.output.ItemAvailabilityDTO;
+import no.delalt.back.response.dto.ItemAvailabilityResponse;
 import no.delalt.back.response.list.BorrowAgreementDatesListResponse;
 import no.delalt.back.response.list.BorrowAgreementListResponse;
 import no.delalt.back.service.BorrowAgreementService;
@@ -17,6 +21,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -188,4 +193,32 @@ public class BorrowAgreementController {
     );
     return ResponseEntity.ok(borrowAgreementDatesListResponse);
   }
+
+  /**
+   * Retrieves the availability calendar of an item for the next days, starting today.
+   * The busy days are sent as a base64 encoded bitset, see ItemAvailabilityDTO.
+   *
+   * @param  itemID   the ID of the item
+   * @param  days     the number of days of the calendar
+   * @param  pending  whether the days of pending requests count as busy
+   * @return          the response entity containing the availability calendar
+   * @throws ResponseStatusException if the item does not exist
+   */
+  @Operation(summary = "Retrieves the availability calendar of an item")
+  @GetMapping(path = "/availability/item/{itemID}", produces = "application/json")
+  public ResponseEntity<ItemAvailabilityResponse> getAvailabilityForItem(
+    @PathVariable @ValidID @NotBlank String itemID,
+    @RequestParam(
+      defaultValue = "" + BorrowAgreementService.MAX_AVAILABILITY_DAYS
+    ) @Min(1) @Max(BorrowAgreementService.MAX_AVAILABILITY_DAYS) int days,
+    @RequestParam(defaultValue = "false") boolean pending
+  )
+    throws ResponseStatusException {
+    ItemAvailabilityDTO itemAvailabilityDTO = borrowService.retrieveAvailabilityForItem(
+      itemID,
+      days,
+      pending
+    );
+    return ResponseEntity.ok(new ItemAvailabilityResponse(itemAvailabilityDTO));
+  }
 }
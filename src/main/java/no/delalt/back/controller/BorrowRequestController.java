@@ -2,10 +2,16 @@ package no.delalt.back.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import no.delalt.back.configuration.validation.ValidID;
 import no.delalt.back.model.dto.input.BorrowRequestCreationDTO;
 import no.delalt.back.model.dto.output.BorrowRequestDTO;
+import no.delalt.back.model.enums.BorrowRequestRoleEnum;
+import no.delalt.back.model.enums.BorrowRequestStatusEnum;
+import no.delalt.back.response.list.BorrowRequestInboxListResponse;
 import no.delalt.back.response.list.BorrowRequestListResponse;
 import no.delalt.back.service.BorrowRequestService;
 import org.springframework.http.ResponseEntity;
@@ -16,15 +22,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @Validated
 @RequestMapping("/borrow/request")
 public class BorrowRequestController {
+  private static final int MAX_INBOX_LIMIT = 100;
   private final BorrowRequestService borrowRequestService;
 
   public BorrowRequestController(BorrowRequestService borrowRequestService) {
@@ -49,6 +59,41 @@ public class BorrowRequestController {
     return ResponseEntity.ok().build();
   }
 
+  /**
+   * Retrieves a page of the borrow requests of the current user, newest first.
+   * To get the next page, pass the nextCursor of the response as cursor.
+   *
+   * @param  role      whether to retrieve the requests the user owns or has made
+   * @param  statuses  the statuses of the requests to retrieve, all statuses if none are given
+   * @param  cursor    the cursor of the page, optional
+   * @param  limit     the maximum number of requests to return
+   * @return           the response entity containing the requests and the cursor of the next page
+   * @throws ResponseStatusException  if the cursor is invalid
+   */
+  @Operation(summary = "Retrieves a page of the borrow requests of the current user")
+  @GetMapping(path = "/inbox", produces = "application/json")
+  public ResponseEntity<BorrowRequestInboxListResponse> getInbox(
+    @RequestParam BorrowRequestRoleEnum role,
+    @RequestParam(
+      name = "status",
+      required = false
+    ) Set<BorrowRequestStatusEnum> statuses,
+    @RequestParam(required = false) @Size(max = 64) String cursor,
+    @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_INBOX_LIMIT) int limit
+  )
+    throws ResponseStatusException {
+    BorrowRequestInboxListResponse borrowRequestInboxListResponse = borrowRequestService.retrieveInbox(
+      role,
+      statuses == null || statuses.isEmpty()
+        ? EnumSet.allOf(BorrowRequestStatusEnum.class)
+        : statuses,
+      cursor,
+      limit
+    );
+
+    return ResponseEntity.ok(borrowRequestInboxListResponse);
+  }
+
   /**
    * Retrieves the pending borrow requests for the owner.
    *
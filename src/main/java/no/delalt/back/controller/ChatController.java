@@ -2,29 +2,40 @@ package no.delalt.back.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.PositiveOrZero;
 import no.delalt.back.configuration.validation.ValidID;
 import no.delalt.back.model.dto.input.ConversationCreationDTO;
 import no.delalt.back.model.dto.input.NewMessageDTO;
 import no.delalt.back.model.dto.output.ChatMessageDTO;
 import no.delalt.back.model.dto.output.ConversationDTO;
+import no.delalt.back.model.dto.output.UnreadCountDTO;
 import no.delalt.back.response.bool.ConversationExistsBooleanResponse;
 import no.delalt.back.response.id.ConversationIDResponse;
 import no.delalt.back.response.id.MessageIDResponse;
 import no.delalt.back.response.list.ChatMessageListResponse;
 import no.delalt.back.response.list.ConversationListResponse;
+import no.delalt.back.response.list.UnreadCountListResponse;
 import no.delalt.back.service.ChatService;
+import no.delalt.back.service.ChatStreamService;
+import no.delalt.back.service.worker.ChatIngestWorkerService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -33,9 +44,44 @@ import java.util.List;
 @RequestMapping("/chat")
 public class ChatController {
   private final ChatService chatService;
+  private final ChatStreamService chatStreamService;
+  private final ChatIngestWorkerService chatIngestWorkerService;
+  private static final String MESSAGE_ID_PATTERN = "^[0-9A-HJKMNP-TV-Z]{26}$";
+  private static final int MAX_MESSAGE_LIMIT = 50;
+  private static final int MAX_CONVERSATION_LIMIT = 100;
 
-  public ChatController(ChatService chatService) {
+  public ChatController(
+    ChatService chatService,
+    ChatStreamService chatStreamService,
+    ChatIngestWorkerService chatIngestWorkerService
+  ) {
     this.chatService = chatService;
+    this.chatStreamService = chatStreamService;
+    this.chatIngestWorkerService = chatIngestWorkerService;
+  }
+
+  /**
+   * Opens a Server-Sent Events stream of new chat messages for the current user.
+   * Each event is named message and carries the conversation ID and the message.
+   * A reconnecting client is first sent the messages after the Last-Event-ID it sends,
+   * or a resync event if it missed too many of them to replay.
+   *
+   * @param  lastEventID               the ID of the last message the client received, or null
+   * @return                           the emitter streaming the events
+   * @throws ResponseStatusException   if the server has no room for more streams
+   */
+  @Operation(
+    summary = "Opens a stream of new chat messages for the current user."
+  )
+  @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamMessages(
+    @RequestHeader(name = "Last-Event-ID", required = false) @Pattern(
+      regexp = MESSAGE_ID_PATTERN,
+      message = "Invalid ID"
+    ) String lastEventID
+  )
+    throws ResponseStatusException {
+    return chatStreamService.subscribe(lastEventID);
   }
 
   /**
@@ -116,6 +162,7 @@ public class ChatController {
 
   /**
    * Sends a message to the given conversation ID.
+   * With chat.ingest.batched enabled, the message is written as part of a batch instead.
    *
    * @param  conversationID            the ID of the conversation
    * @param  newMessageDTO             the DTO containing the message details
@@ -133,27 +180,40 @@ public class ChatController {
     @RequestBody @Valid NewMessageDTO newMessageDTO
   )
     throws ResponseStatusException {
-    String messageID = chatService.handleSendMessage(
-      conversationID,
-      newMessageDTO
-    );
+    String messageID = chatIngestWorkerService.isEnabled()
+      ? chatIngestWorkerService.handleSendMessage(conversationID, newMessageDTO)
+      : chatService.handleSendMessage(conversationID, newMessageDTO);
     MessageIDResponse messageIDResponse = new MessageIDResponse(messageID);
 
     return ResponseEntity.ok(messageIDResponse);
   }
 
-  //TODO Later update it to be pageable
   /**
-   * Retrieves all conversations for the given user ID.
+   * Retrieves the conversations of the current user, ordered by their latest message.
+   * Without a limit all conversations are returned. To get the next page, pass the ID
+   * of the latest message of the last conversation in the response as before.
    *
+   * @param  before                    the ID of the message to start before, optional
+   * @param  limit                     the maximum number of conversations to return, optional
    * @return                           the response entity containing the list of conversations
    * @throws ResponseStatusException   if an error occurs while retrieving the conversations
    */
-  @Operation(summary = "Retrieves all conversations for the given user ID.")
+  @Operation(summary = "Retrieves the conversations of the current user.")
   @GetMapping(path = "/user/conversations", produces = "application/json")
-  public ResponseEntity<ConversationListResponse> getAllConversations()
+  public ResponseEntity<ConversationListResponse> getAllConversations(
+    @RequestParam(required = false) @Pattern(
+      regexp = MESSAGE_ID_PATTERN,
+      message = "Invalid ID"
+    ) String before,
+    @RequestParam(required = false) @Min(1) @Max(
+      MAX_CONVERSATION_LIMIT
+    ) Integer limit
+  )
     throws ResponseStatusException {
-    List<ConversationDTO> conversationDTOs = chatService.handleGetAllConversations();
+    List<ConversationDTO> conversationDTOs = chatService.handleGetAllConversations(
+      before,
+      limit
+    );
     ConversationListResponse conversationListResponse = new ConversationListResponse(
       conversationDTOs
     );
@@ -161,16 +221,99 @@ public class ChatController {
     return ResponseEntity.ok(conversationListResponse);
   }
 
+  /**
+   * Marks all messages in the given conversation as read for the current user.
+   *
+   * @param  conversationID            the ID of the conversation
+   * @return                           the response entity with a void body
+   * @throws ResponseStatusException   if the conversation does not exist or the user is not part of it
+   */
+  @Operation(
+    summary = "Marks all messages in the given conversation as read for the current user."
+  )
+  @PostMapping(path = "/{conversationID}/read")
+  public ResponseEntity<Void> markAsRead(
+    @PathVariable @ValidID @NotBlank String conversationID
+  )
+    throws ResponseStatusException {
+    chatService.handleMarkAsRead(conversationID);
+    return ResponseEntity.ok().build();
+  }
+
+  /**
+   * Retrieves the number of unread messages in each conversation of the current user.
+   * Conversations without unread messages are left out.
+   *
+   * @return                           the response entity containing the unread counts
+   * @throws ResponseStatusException   if an error occurs while retrieving the unread counts
+   */
+  @Operation(
+    summary = "Retrieves the number of unread messages in each conversation of the current user."
+  )
+  @GetMapping(path = "/unread", produces = "application/json")
+  public ResponseEntity<UnreadCountListResponse> getUnreadCounts()
+    throws ResponseStatusException {
+    List<UnreadCountDTO> unreadCountDTOs = chatService.handleGetUnreadCounts();
+    UnreadCountListResponse unreadCountListResponse = new UnreadCountListResponse(
+      unreadCountDTOs
+    );
+
+    return ResponseEntity.ok(unreadCountListResponse);
+  }
+
+  /**
+   * Retrieves the chat messages sent before a given message in a conversation, newest first.
+   * To scroll further back, pass the ID of the last message in the response as before.
+   *
+   * @param  conversationID  the ID of the conversation
+   * @param  before          the ID of the message to start before, optional
+   * @param  limit           the maximum number of messages to return
+   * @return                 a response entity containing the list of chat messages
+   * @throws ResponseStatusException  if there is an error retrieving the chat messages
+   */
+  @Operation(
+    summary = "Retrieves the chat messages sent before a given message in a conversation."
+  )
+  @GetMapping(
+    path = "/{conversationID}/messages",
+    produces = "application/json"
+  )
+  public ResponseEntity<ChatMessageListResponse> getChatMessagesBefore(
+    @PathVariable @ValidID @NotBlank String conversationID,
+    @RequestParam(required = false) @Pattern(
+      regexp = MESSAGE_ID_PATTERN,
+      message = "Invalid ID"
+    ) String before,
+    @RequestParam(defaultValue = "10") @Min(1) @Max(
+      MAX_MESSAGE_LIMIT
+    ) int limit
+  )
+    throws ResponseStatusException {
+    List<ChatMessageDTO> chatMessageDTOs = chatService.handleGetMessagesBefore(
+      conversationID,
+      before,
+      limit
+    );
+    ChatMessageListResponse chatMessageListResponse = new ChatMessageListResponse(
+      chatMessageDTOs
+    );
+
+    return ResponseEntity.ok(chatMessageListResponse);
+  }
+
   /**
    * Retrieves a list of chat messages for a given conversation ID and page number.
+   * Kept for older clients, use {@link #getChatMessagesBefore} instead.
    *
    * @param  conversationID  the ID of the conversation
    * @param  page            the page number of the chat messages
    * @return                 a response entity containing the list of chat messages
    * @throws ResponseStatusException  if there is an error retrieving the chat messages
    */
+  @Deprecated
   @Operation(
-    summary = "Retrieves a list of chat messages for a given conversation ID and page number."
+    summary = "Retrieves a list of chat messages for a given conversation ID and page number.",
+    deprecated = true
   )
   @GetMapping(path = "/{conversationID}/{page}", produces = "application/json")
   public ResponseEntity<ChatMessageListResponse> getChatMessages(
@@ -8,7 +8,9 @@ import jakarta.validation.constraints.NotBlank;
 import no.delalt.back.configuration.validation.ValidID;
 import no.delalt.back.model.dto.input.CommunityCreationDTO;
 import no.delalt.back.model.dto.output.CommunityDTO;
+import no.delalt.back.model.dto.output.CommunityPurgeDTO;
 import no.delalt.back.model.dto.output.UserDTO;
+import no.delalt.back.response.dto.CommunityPurgeResponse;
 import no.delalt.back.response.dto.CommunityResponse;
 import no.delalt.back.response.id.CommunityIDResponse;
 import no.delalt.back.response.list.CommunityListResponse;
@@ -186,4 +188,24 @@ public class CommunityController {
     communityDeletionService.handleRemoveCommunity(communityID);
     return ResponseEntity.ok().build();
   }
+
+  /**
+   * Retrieves the progress of the deletion of a community, for the user who removed it.
+   *
+   * @param  communityID  the ID of the deleted community
+   * @return              the ResponseEntity containing the progress of the deletion
+   * @throws ResponseStatusException  if the community has not been deleted,
+   *                                  or was removed by another user
+   */
+  @Operation(summary = "Retrieves the progress of the deletion of a community")
+  @GetMapping(path = "/{communityID}/deletion", produces = "application/json")
+  public ResponseEntity<CommunityPurgeResponse> getCommunityDeletionProgress(
+    @PathVariable @ValidID @NotBlank String communityID
+  )
+    throws ResponseStatusException {
+    CommunityPurgeDTO communityPurgeDTO = communityDeletionService.getDeletionProgress(
+      communityID
+    );
+    return ResponseEntity.ok(new CommunityPurgeResponse(communityPurgeDTO));
+  }
 }
@@ -1,16 +1,22 @@
 package no.delalt.back.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import no.delalt.back.configuration.validation.ValidID;
 import no.delalt.back.model.dto.output.ItemDTO;
+import no.delalt.back.response.list.ItemFeedListResponse;
 import no.delalt.back.response.list.ItemListResponse;
+import no.delalt.back.response.list.NearbyItemListResponse;
 import no.delalt.back.service.CommunityItemService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -21,6 +27,7 @@ import java.util.List;
 @RequestMapping("/community/item")
 public class CommunityItemController {
   private final CommunityItemService communityItemService;
+  private static final int MAX_FEED_LIMIT = 100;
 
   public CommunityItemController(CommunityItemService communityItemService) {
     this.communityItemService = communityItemService;
@@ -44,6 +51,54 @@ public class CommunityItemController {
     return ResponseEntity.ok(itemListResponse);
   }
 
+  /**
+   * Retrieves a page of the item feed of the authenticated user, newest items first.
+   * To get the next page, pass the nextCursor of the response as cursor.
+   *
+   * @param  cursor  the cursor of the page, optional
+   * @param  limit   the maximum number of items to return
+   * @return         the response entity containing the items and the cursor of the next page
+   * @throws ResponseStatusException  if the cursor is invalid
+   */
+  @Operation(summary = "Retrieves a page of the item feed of the current user")
+  @GetMapping(path = "/feed", produces = "application/json")
+  public ResponseEntity<ItemFeedListResponse> getItemFeed(
+    @RequestParam(required = false) @Size(max = 64) String cursor,
+    @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_FEED_LIMIT) int limit
+  )
+    throws ResponseStatusException {
+    ItemFeedListResponse itemFeedListResponse = communityItemService.handleItemFeed(
+      cursor,
+      limit
+    );
+
+    return ResponseEntity.ok(itemFeedListResponse);
+  }
+
+  /**
+   * Retrieves a page of the borrowable items nearest to the current user's location.
+   * To get the next page, pass the nextCursor of the response as cursor.
+   *
+   * @param  cursor  the cursor of the page, optional
+   * @param  limit   the maximum number of items to return
+   * @return         the response entity containing the items and the cursor of the next page
+   * @throws ResponseStatusException  if the cursor is invalid
+   */
+  @Operation(summary = "Retrieves the borrowable items nearest to the current user")
+  @GetMapping(path = "/nearby", produces = "application/json")
+  public ResponseEntity<NearbyItemListResponse> getNearbyItems(
+    @RequestParam(required = false) @Size(max = 64) String cursor,
+    @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_FEED_LIMIT) int limit
+  )
+    throws ResponseStatusException {
+    NearbyItemListResponse nearbyItemListResponse = communityItemService.handleNearbyItems(
+      cursor,
+      limit
+    );
+
+    return ResponseEntity.ok(nearbyItemListResponse);
+  }
+
   //TODO Fix the retrieval of items from non-members
   /**
    * Retrieves all items in a community.
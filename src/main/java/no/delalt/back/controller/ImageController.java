@@ -2,11 +2,16 @@ package no.delalt.back.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import no.delalt.back.configuration.validation.ValidID;
-import no.delalt.back.model.dao.ImageDAO;
+import no.delalt.back.model.object.ImageMetadata;
+import no.delalt.back.model.object.ImageRepresentation;
 import no.delalt.back.response.id.ImageIDResponse;
 import no.delalt.back.service.retrieval.ImageRetrievalService;
 import no.delalt.back.service.save.ImageSaveService;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -15,15 +20,28 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @Validated
 @RequestMapping("/image")
 public class ImageController {
   private final ImageSaveService imageSaveService;
   private final ImageRetrievalService imageRetrievalService;
+  private static final int CACHE_MAX_AGE_IN_DAYS = 365;
+  private static final CacheControl IMAGE_CACHE_CONTROL = CacheControl
+    .maxAge(CACHE_MAX_AGE_IN_DAYS, TimeUnit.DAYS)
+    .cachePublic()
+    .immutable();
+  private static final int FALLBACK_MAX_AGE_IN_SECONDS = 60;
+  private static final CacheControl FALLBACK_CACHE_CONTROL = CacheControl
+    .maxAge(FALLBACK_MAX_AGE_IN_SECONDS, TimeUnit.SECONDS)
+    .cachePublic();
 
   public ImageController(
     ImageSaveService imageSaveService,
@@ -57,9 +75,16 @@ public class ImageController {
 
   /**
    * Retrieves an image from the system.
+   * The image is streamed from the image store instead of being loaded into memory.
+   * Images never change, so they are cached by clients for a year and a request
+   * with a matching ETag is answered with 304 from the image metadata alone.
+   * When a size is given, the nearest pre-generated variant is served instead. Until it
+   * exists, the original is served with a short cache lifetime.
    *
-   * @param  imageID  the ID of the image to be retrieved
-   * @return          the response entity containing the image
+   * @param  imageID     the ID of the image to be retrieved
+   * @param  size        the requested length of the longest side in pixels, optional
+   * @param  webRequest  the current request, used to evaluate conditional headers
+   * @return             the response entity streaming the image
    * @throws ResponseStatusException if an error occurs while retrieving the image
    */
   @Operation(summary = "Retrieves an image from the system")
@@ -67,12 +92,38 @@ public class ImageController {
     path = "/{imageID}",
     produces = { MediaType.IMAGE_JPEG_VALUE, "application/json" }
   )
-  public ResponseEntity<byte[]> getImage(
-    @PathVariable @ValidID @NotBlank String imageID
+  public ResponseEntity<Resource> getImage(
+    @PathVariable @ValidID @NotBlank String imageID,
+    @RequestParam(required = false) @Positive Integer size,
+    WebRequest webRequest
   )
     throws ResponseStatusException {
-    ImageDAO imageDAO = imageRetrievalService.getImage(imageID);
+    ImageMetadata metadata = imageRetrievalService.getImageMetadata(imageID);
+    ImageRepresentation representation = imageRetrievalService.resolveRepresentation(
+      metadata,
+      size
+    );
+    CacheControl cacheControl = representation.isFallback()
+      ? FALLBACK_CACHE_CONTROL
+      : IMAGE_CACHE_CONTROL;
+    long lastModified = metadata.createdAt() != null
+      ? metadata.createdAt()
+      : -1;
+
+    // Sets the ETag and Last-Modified headers on the response
+    if (webRequest.checkNotModified(representation.eTag(), lastModified)) {
+      return ResponseEntity
+        .status(HttpStatus.NOT_MODIFIED)
+        .cacheControl(cacheControl)
+        .build();
+    }
+
+    Resource image = imageRetrievalService.getImageContent(representation);
 
-    return ResponseEntity.ok(imageDAO.getImage());
+    return ResponseEntity
+      .ok()
+      .contentType(MediaType.IMAGE_JPEG)
+      .cacheControl(cacheControl)
+      .body(image);
   }
 }
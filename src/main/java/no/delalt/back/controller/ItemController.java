@@ -2,7 +2,10 @@ package no.delalt.back.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import no.delalt.back.configuration.validation.ValidID;
 import no.delalt.back.model.dto.input.ItemCreationDTO;
 import no.delalt.back.model.dto.input.ItemModifyDTO;
@@ -11,6 +14,7 @@ import no.delalt.back.model.dto.output.ItemOwnerDTO;
 import no.delalt.back.response.dto.ItemOwnerResponse;
 import no.delalt.back.response.id.ItemIDResponse;
 import no.delalt.back.response.list.ItemListResponse;
+import no.delalt.back.response.list.ItemSearchListResponse;
 import no.delalt.back.service.ItemService;
 import no.delalt.back.service.deletion.ItemDeletionService;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +26,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -33,6 +38,7 @@ import java.util.List;
 public class ItemController {
   private final ItemService itemService;
   private final ItemDeletionService itemDeletionService;
+  private static final int MAX_SEARCH_LIMIT = 100;
 
   public ItemController(
     ItemService itemService,
@@ -127,7 +133,36 @@ public class ItemController {
     return ResponseEntity.ok(itemListResponse);
   }
 
-  //TODO Fix this, should never delete all community item entities when updating the communities of the item
+  /**
+   * Searches the items of other users in the communities of the current user, best matches first.
+   * To get the next page, pass the nextCursor of the response as cursor.
+   *
+   * @param  q            the search query
+   * @param  communityID  the ID of the community to search in, optional
+   * @param  cursor       the cursor of the page, optional
+   * @param  limit        the maximum number of items to return
+   * @return              the response entity containing the items and the cursor of the next page
+   * @throws ResponseStatusException  if the query or the cursor is invalid
+   */
+  @Operation(summary = "Searches items in the communities of the current user")
+  @GetMapping(path = "/search", produces = "application/json")
+  public ResponseEntity<ItemSearchListResponse> searchItems(
+    @RequestParam @NotBlank @Size(max = 100) String q,
+    @RequestParam(required = false) @ValidID String communityID,
+    @RequestParam(required = false) @Size(max = 64) String cursor,
+    @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_SEARCH_LIMIT) int limit
+  )
+    throws ResponseStatusException {
+    ItemSearchListResponse itemSearchListResponse = itemService.searchItems(
+      q,
+      communityID,
+      cursor,
+      limit
+    );
+
+    return ResponseEntity.ok(itemSearchListResponse);
+  }
+
   /**
    * Change an item.
    *
@@ -0,0 +1,34 @@
+package no.delalt.back.model.dao;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+@Entity
+@Table(
+  name = "account_purge",
+  schema = "public",
+  indexes = {
+    @Index(name = "idx_account_purge_phase", columnList = "phase, created_at")
+  }
+)
+public class AccountPurgeDAO extends PurgeDAO {
+  @Id
+  @NotNull
+  @Column(name = "user_id", columnDefinition = "VARCHAR(21)", nullable = false)
+  private String userID;
+
+  public AccountPurgeDAO() {}
+
+  public AccountPurgeDAO(String userID, short phase, long createdAt) {
+    super(phase, createdAt);
+    this.userID = userID;
+  }
+
+  public String getUserID() {
+    return userID;
+  }
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import no.delalt.back.configuration.validation.ValidID;
 
@@ -22,12 +23,16 @@ import java.time.LocalDate;
       columnList = "item_id, start_date, end_date"
     ),
     @Index(
-      name = "idx_owner_isProcessed",
-      columnList = "owner_id, is_processed"
+      name = "idx_owner_isProcessed_status_createdAt",
+      columnList = "owner_id, is_processed, status, created_at"
     ),
     @Index(
-      name = "idx_requester_isProcessed",
-      columnList = "requester_id, is_processed"
+      name = "idx_requester_isProcessed_status_createdAt",
+      columnList = "requester_id, is_processed, status, created_at"
+    ),
+    @Index(
+      name = "idx_isProcessed_endDate",
+      columnList = "is_processed, end_date"
     )
   }
 )
@@ -80,6 +85,14 @@ public class BorrowRequestDAO {
   @Column(name = "is_processed", nullable = false)
   private boolean isProcessed;
 
+  @Version
+  @Column(
+    name = "version",
+    columnDefinition = "INTEGER DEFAULT 0",
+    nullable = false
+  )
+  private int version;
+
   public BorrowRequestDAO() {}
 
   public String getBorrowRequestID() {
@@ -161,4 +174,8 @@ public class BorrowRequestDAO {
   public void setIsProcessed(boolean isProcessed) {
     this.isProcessed = isProcessed;
   }
+
+  public int getVersion() {
+    return version;
+  }
 }
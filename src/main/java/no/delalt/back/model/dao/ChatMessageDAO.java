@@ -15,7 +15,10 @@ import jakarta.validation.constraints.Size;
   name = "chat_message",
   schema = "public",
   indexes = {
-    @Index(name = "idx_conversation", columnList = "conversation_id"),
+    @Index(
+      name = "idx_conversation_message",
+      columnList = "conversation_id, message_id"
+    ),
     @Index(name = "idx_timeSent", columnList = "time_sent")
   }
 )
@@ -13,6 +13,8 @@ import jakarta.validation.constraints.NotNull;
 import no.delalt.back.configuration.validation.ValidID;
 import org.locationtech.jts.geom.Point;
 
+import java.time.LocalDate;
+
 @Entity
 @Table(
   name = "community",
@@ -52,6 +54,9 @@ public class CommunityDAO {
   @Column(name = "coordinates", columnDefinition = "geometry(Point,4326)")
   private Point coordinates;
 
+  @Column(name = "deleted_at")
+  private LocalDate deletedAt;
+
   @PrePersist
   @PreUpdate
   public void enforceNullCoordinatesForInvisibleCommunities() {
@@ -113,4 +118,12 @@ public class CommunityDAO {
   public void setImage(String image) {
     this.image = image;
   }
+
+  public LocalDate getDeletedAt() {
+    return deletedAt;
+  }
+
+  public void setDeletedAt(LocalDate deletedAt) {
+    this.deletedAt = deletedAt;
+  }
 }
@@ -0,0 +1,54 @@
+package no.delalt.back.model.dao;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+@Entity
+@Table(
+  name = "community_purge",
+  schema = "public",
+  indexes = {
+    @Index(
+      name = "idx_community_purge_phase",
+      columnList = "phase, created_at"
+    )
+  }
+)
+public class CommunityPurgeDAO extends PurgeDAO {
+  @Id
+  @NotNull
+  @Column(
+    name = "community_id",
+    columnDefinition = "VARCHAR(21)",
+    nullable = false
+  )
+  private String communityID;
+
+  @Column(name = "requested_by", columnDefinition = "VARCHAR(21)")
+  private String requestedBy;
+
+  public CommunityPurgeDAO() {}
+
+  public CommunityPurgeDAO(
+    String communityID,
+    String requestedBy,
+    short phase,
+    long createdAt
+  ) {
+    super(phase, createdAt);
+    this.communityID = communityID;
+    this.requestedBy = requestedBy;
+  }
+
+  public String getCommunityID() {
+    return communityID;
+  }
+
+  public String getRequestedBy() {
+    return requestedBy;
+  }
+}
@@ -17,7 +17,10 @@ import java.time.LocalDateTime;
   name = "gathering",
   schema = "public",
   indexes = {
-    @Index(name = "idx_is_expired", columnList = "is_expired"),
+    @Index(
+      name = "idx_isExpired_dateAndTime",
+      columnList = "is_expired, date_and_time"
+    ),
     @Index(name = "idx_community_id", columnList = "community_id")
   }
 )
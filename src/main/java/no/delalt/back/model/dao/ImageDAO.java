@@ -3,15 +3,21 @@ package no.delalt.back.model.dao;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 import no.delalt.back.configuration.validation.ValidID;
 
 @Entity
-@Table(name = "image", schema = "public")
+@Table(
+  name = "image",
+  schema = "public",
+  indexes = {
+    @Index(name = "idx_content_hash", columnList = "content_hash")
+  }
+)
 public class ImageDAO {
   @Id
   @ValidID
@@ -19,10 +25,14 @@ public class ImageDAO {
   @Column(name = "image_id", columnDefinition = "VARCHAR(21)", nullable = false)
   private String imageID;
 
-  @NotNull
-  @Lob
-  @Column(length = 1048576, name = "image", nullable = false)
-  private byte[] image;
+  @Column(name = "content_hash", columnDefinition = "VARCHAR(64)")
+  private String contentHash;
+
+  @Column(name = "size_in_bytes")
+  private Long size;
+
+  @Column(name = "created_at")
+  private Long createdAt;
 
   @NotNull
   @ManyToOne
@@ -31,9 +41,17 @@ public class ImageDAO {
 
   public ImageDAO() {}
 
-  public ImageDAO(String imageID, byte[] image, UserDAO user) {
+  public ImageDAO(
+    String imageID,
+    String contentHash,
+    Long size,
+    Long createdAt,
+    UserDAO user
+  ) {
     this.imageID = imageID;
-    this.image = image;
+    this.contentHash = contentHash;
+    this.size = size;
+    this.createdAt = createdAt;
     this.user = user;
   }
 
@@ -45,12 +63,28 @@ public class ImageDAO {
     this.imageID = imageID;
   }
 
-  public byte[] getImage() {
-    return image;
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  public void setContentHash(String contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  public Long getSize() {
+    return size;
+  }
+
+  public void setSize(Long size) {
+    this.size = size;
+  }
+
+  public Long getCreatedAt() {
+    return createdAt;
   }
 
-  public void setImage(byte[] image) {
-    this.image = image;
+  public void setCreatedAt(Long createdAt) {
+    this.createdAt = createdAt;
   }
 
   public UserDAO getUser() {
@@ -3,6 +3,7 @@ package no.delalt.back.model.dao;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -10,7 +11,16 @@ import jakarta.validation.constraints.NotNull;
 import no.delalt.back.configuration.validation.ValidID;
 
 @Entity
-@Table(name = "invite", schema = "public")
+@Table(
+  name = "invite",
+  schema = "public",
+  indexes = {
+    @Index(
+      name = "idx_isExpired_createdAt",
+      columnList = "is_expired, created_at"
+    )
+  }
+)
 public class InviteDAO {
   @Id
   @ValidID
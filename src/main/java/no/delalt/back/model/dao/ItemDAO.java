@@ -14,7 +14,13 @@ import no.delalt.back.configuration.validation.ValidID;
 @Table(
   name = "item",
   schema = "public",
-  indexes = { @Index(name = "idx_user", columnList = "user_id") }
+  indexes = {
+    @Index(name = "idx_user", columnList = "user_id"),
+    @Index(
+      name = "idx_item_created_at",
+      columnList = "created_at DESC, item_id DESC"
+    )
+  }
 )
 public class ItemDAO {
   @Id
@@ -46,6 +52,13 @@ public class ItemDAO {
   @Column(name = "is_deleted", nullable = false)
   private boolean isDeleted;
 
+  @Column(
+    name = "created_at",
+    columnDefinition = "BIGINT DEFAULT 0 NOT NULL",
+    nullable = false
+  )
+  private long createdAt;
+
   public ItemDAO() {}
 
   public String getItemID() {
@@ -103,4 +116,12 @@ public class ItemDAO {
   public void setIsForGiving(boolean isForGiving) {
     this.isForGiving = isForGiving;
   }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(long createdAt) {
+    this.createdAt = createdAt;
+  }
 }
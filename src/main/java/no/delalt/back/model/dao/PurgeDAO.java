@@ -0,0 +1,60 @@
+package no.delalt.back.model.dao;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.validation.constraints.NotNull;
+
+@MappedSuperclass
+public abstract class PurgeDAO {
+  @NotNull
+  @Column(name = "phase", nullable = false)
+  private short phase;
+
+  @NotNull
+  @Column(name = "purged_rows", nullable = false)
+  private long purgedRows;
+
+  @NotNull
+  @Column(name = "created_at", nullable = false)
+  private long createdAt;
+
+  @NotNull
+  @Column(name = "updated_at", nullable = false)
+  private long updatedAt;
+
+  protected PurgeDAO() {}
+
+  protected PurgeDAO(short phase, long createdAt) {
+    this.phase = phase;
+    this.createdAt = createdAt;
+    this.updatedAt = createdAt;
+  }
+
+  public short getPhase() {
+    return phase;
+  }
+
+  public void setPhase(short phase) {
+    this.phase = phase;
+  }
+
+  public long getPurgedRows() {
+    return purgedRows;
+  }
+
+  public void setPurgedRows(long purgedRows) {
+    this.purgedRows = purgedRows;
+  }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  public long getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(long updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
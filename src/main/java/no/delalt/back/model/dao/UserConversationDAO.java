@@ -1,8 +1,10 @@
 package no.delalt.back.model.dao;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -10,7 +12,11 @@ import jakarta.validation.constraints.NotNull;
 import no.delalt.back.model.id.UserConversationID;
 
 @Entity
-@Table(name = "user_conversation", schema = "public")
+@Table(
+  name = "user_conversation",
+  schema = "public",
+  indexes = { @Index(name = "idx_user_conversation_user", columnList = "user_id") }
+)
 @IdClass(UserConversationID.class)
 public class UserConversationDAO {
   @Id
@@ -25,6 +31,16 @@ public class UserConversationDAO {
   @JoinColumn(name = "conversation_id", nullable = false)
   private ConversationDAO conversation;
 
+  @Column(name = "last_read_message_id", columnDefinition = "VARCHAR(26)")
+  private String lastReadMessageID;
+
+  @Column(
+    name = "unread_count",
+    columnDefinition = "INTEGER DEFAULT 0 NOT NULL",
+    nullable = false
+  )
+  private int unreadCount;
+
   public UserConversationDAO() {}
 
   public UserConversationDAO(UserDAO user, ConversationDAO conversation) {
@@ -43,4 +59,20 @@ public class UserConversationDAO {
   public void setConversation(ConversationDAO conversation) {
     this.conversation = conversation;
   }
+
+  public String getLastReadMessageID() {
+    return lastReadMessageID;
+  }
+
+  public void setLastReadMessageID(String lastReadMessageID) {
+    this.lastReadMessageID = lastReadMessageID;
+  }
+
+  public int getUnreadCount() {
+    return unreadCount;
+  }
+
+  public void setUnreadCount(int unreadCount) {
+    this.unreadCount = unreadCount;
+  }
 }
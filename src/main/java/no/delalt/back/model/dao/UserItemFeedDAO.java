@@ -0,0 +1,52 @@
+package no.delalt.back.model.dao;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import no.delalt.back.model.id.UserItemFeedID;
+
+@Entity
+@Table(
+  name = "user_item_feed",
+  schema = "public",
+  indexes = {
+    @Index(
+      name = "idx_user_item_feed",
+      columnList = "user_id, created_at DESC, item_id DESC"
+    )
+  }
+)
+@IdClass(UserItemFeedID.class)
+public class UserItemFeedDAO {
+  @Id
+  @NotNull
+  @Column(name = "user_id", columnDefinition = "VARCHAR(21)", nullable = false)
+  private String userID;
+
+  @Id
+  @NotNull
+  @Column(name = "item_id", columnDefinition = "VARCHAR(21)", nullable = false)
+  private String itemID;
+
+  @NotNull
+  @Column(name = "created_at", nullable = false)
+  private long createdAt;
+
+  public UserItemFeedDAO() {}
+
+  public String getUserID() {
+    return userID;
+  }
+
+  public String getItemID() {
+    return itemID;
+  }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+}
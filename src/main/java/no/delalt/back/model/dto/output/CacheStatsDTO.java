@@ -0,0 +1,23 @@
+package no.delalt.back.model.dto.output;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public record CacheStatsDTO(
+  long entries,
+  long hits,
+  long misses,
+  double hitRate,
+  long evictions,
+  long evictedWeight
+) {
+  public CacheStatsDTO(long entries, CacheStats cacheStats) {
+    this(
+      entries,
+      cacheStats.hitCount(),
+      cacheStats.missCount(),
+      cacheStats.hitRate(),
+      cacheStats.evictionCount(),
+      cacheStats.evictionWeight()
+    );
+  }
+}
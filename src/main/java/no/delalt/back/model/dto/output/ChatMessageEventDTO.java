@@ -0,0 +1,6 @@
+package no.delalt.back.model.dto.output;
+
+public record ChatMessageEventDTO(
+  String conversationID,
+  ChatMessageDTO message
+) {}
@@ -0,0 +1,28 @@
+package no.delalt.back.model.dto.output;
+
+import no.delalt.back.model.dao.CommunityPurgeDAO;
+import no.delalt.back.model.enums.CommunityPurgePhaseEnum;
+import no.delalt.back.model.enums.PurgePhase;
+
+public record CommunityPurgeDTO(
+  String communityID,
+  String phase,
+  boolean done,
+  long purgedRows,
+  long createdAt,
+  long updatedAt
+) {
+  public CommunityPurgeDTO(CommunityPurgeDAO communityPurgeDAO) {
+    this(
+      communityPurgeDAO.getCommunityID(),
+      PurgePhase
+        .fromValue(CommunityPurgePhaseEnum.class, communityPurgeDAO.getPhase())
+        .name(),
+      communityPurgeDAO.getPhase() ==
+      CommunityPurgePhaseEnum.DONE.getValue(),
+      communityPurgeDAO.getPurgedRows(),
+      communityPurgeDAO.getCreatedAt(),
+      communityPurgeDAO.getUpdatedAt()
+    );
+  }
+}
@@ -1,3 +1,22 @@
 package no.delalt.back.model.dto.output;
 
-public record ConversationDTO (String conversationID, ChatMessageDTO lastMessage, UserDTO recipient) {}
+public record ConversationDTO (String conversationID, ChatMessageDTO lastMessage, UserDTO recipient) {
+
+  public ConversationDTO(
+          String conversationID,
+          String messageID,
+          String text,
+          long timeSent,
+          String senderID,
+          String recipientID,
+          String recipientFirstName,
+          String recipientLastName,
+          String recipientImage
+  ) {
+    this(
+            conversationID,
+            new ChatMessageDTO(messageID, text, timeSent, senderID),
+            new UserDTO(recipientID, recipientFirstName, recipientLastName, recipientImage)
+    );
+  }
+}
@@ -0,0 +1,6 @@
+package no.delalt.back.model.dto.output;
+
+public record ImageCacheStatsDTO(
+  CacheStatsDTO metadata,
+  CacheStatsDTO content
+) {}
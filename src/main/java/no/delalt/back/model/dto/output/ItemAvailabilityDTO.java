@@ -0,0 +1,42 @@
+package no.delalt.back.model.dto.output;
+
+import no.delalt.back.model.object.ItemAvailability;
+
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.BitSet;
+
+/**
+ * The availability calendar of an item. busyDays is a base64 encoded bitset, where bit i
+ * (bit i % 8 of byte i / 8) is set if the item is booked on startDate plus i days.
+ * Trailing free days are left out, so missing bytes mean free days.
+ */
+public record ItemAvailabilityDTO(
+  String itemID,
+  String startDate,
+  int days,
+  boolean includesPending,
+  String busyDays
+) {
+  public ItemAvailabilityDTO(
+    String itemID,
+    ItemAvailability itemAvailability,
+    int days,
+    boolean includesPending
+  ) {
+    this(
+      itemID,
+      itemAvailability.startDate().format(DateTimeFormatter.ISO_LOCAL_DATE),
+      days,
+      includesPending,
+      Base64
+        .getEncoder()
+        .encodeToString(
+          BitSet
+            .valueOf(itemAvailability.busyDays())
+            .get(0, days)
+            .toByteArray()
+        )
+    );
+  }
+}
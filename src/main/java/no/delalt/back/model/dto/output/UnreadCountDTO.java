@@ -0,0 +1,3 @@
+package no.delalt.back.model.dto.output;
+
+public record UnreadCountDTO(String conversationID, int unreadCount, String lastReadMessageID) {}
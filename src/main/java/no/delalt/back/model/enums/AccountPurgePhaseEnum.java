@@ -0,0 +1,29 @@
+package no.delalt.back.model.enums;
+
+/**
+ * The phases of an account purge, in the order they run, so that rows are deleted
+ * before the rows they reference.
+ */
+public enum AccountPurgePhaseEnum implements PurgePhase {
+  COMMUNITY_ITEMS(0),
+  ITEMS(1),
+  MEMBERSHIPS(2),
+  COMMUNITY_REQUESTS(3),
+  INVITES(4),
+  IMAGES(5),
+  RATINGS(6),
+  BORROW_AGREEMENTS(7),
+  BORROW_REQUESTS(8),
+  DONE(9);
+
+  private final short value;
+
+  AccountPurgePhaseEnum(int value) {
+    this.value = (short) value;
+  }
+
+  @Override
+  public short getValue() {
+    return value;
+  }
+}
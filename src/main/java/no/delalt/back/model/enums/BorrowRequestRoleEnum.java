@@ -0,0 +1,6 @@
+package no.delalt.back.model.enums;
+
+public enum BorrowRequestRoleEnum {
+  OWNER,
+  REQUESTER,
+}
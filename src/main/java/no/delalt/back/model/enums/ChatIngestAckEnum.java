@@ -0,0 +1,12 @@
+package no.delalt.back.model.enums;
+
+public enum ChatIngestAckEnum {
+  /**
+   * The request returns once the message is queued. Queued messages are lost if the application stops unexpectedly.
+   */
+  QUEUED,
+  /**
+   * The request returns once the batch containing the message is committed.
+   */
+  COMMITTED
+}
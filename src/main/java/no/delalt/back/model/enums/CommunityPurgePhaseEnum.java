@@ -0,0 +1,27 @@
+package no.delalt.back.model.enums;
+
+/**
+ * The phases of a community purge, in the order they run, so that rows are deleted
+ * before the rows they reference and the community itself is deleted last.
+ */
+public enum CommunityPurgePhaseEnum implements PurgePhase {
+  COMMUNITY_ITEMS(0),
+  MEMBERSHIPS(1),
+  COMMUNITY_REQUESTS(2),
+  GATHERING_ATTENDEES(3),
+  GATHERINGS(4),
+  INVITES(5),
+  COMMUNITY(6),
+  DONE(7);
+
+  private final short value;
+
+  CommunityPurgePhaseEnum(int value) {
+    this.value = (short) value;
+  }
+
+  @Override
+  public short getValue() {
+    return value;
+  }
+}
@@ -0,0 +1,37 @@
+package no.delalt.back.model.enums;
+
+public enum ImageSizeEnum {
+  SMALL(64),
+  MEDIUM(256),
+  LARGE(1024);
+
+  private final int value;
+
+  ImageSizeEnum(int value) {
+    this.value = value;
+  }
+
+  /**
+   * Returns the length of the longest side of the variant in pixels.
+   *
+   * @return the length of the longest side in pixels
+   */
+  public int getValue() {
+    return value;
+  }
+
+  /**
+   * Returns the smallest variant that is at least as large as the requested size.
+   *
+   * @param  size  the requested length of the longest side in pixels
+   * @return       the nearest variant, or null if the original should be used
+   */
+  public static ImageSizeEnum nearest(int size) {
+    for (ImageSizeEnum imageSize : values()) {
+      if (size <= imageSize.value) {
+        return imageSize;
+      }
+    }
+    return null;
+  }
+}
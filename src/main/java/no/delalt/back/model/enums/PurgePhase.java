@@ -0,0 +1,54 @@
+package no.delalt.back.model.enums;
+
+public interface PurgePhase {
+  /**
+   * Gets the value of the phase.
+   *
+   * @return the value of the phase
+   */
+  short getValue();
+
+  /**
+   * Gets the phase following the given one. The phases of an enum are declared in the
+   * order they are purged in, and its last constant marks a finished purge.
+   *
+   * @param  phase  the current phase
+   * @return        the next phase, or the last phase if the given one is the last
+   */
+  static <P extends Enum<P> & PurgePhase> P next(P phase) {
+    P[] phases = phase.getDeclaringClass().getEnumConstants();
+    return phases[Math.min(phase.ordinal() + 1, phases.length - 1)];
+  }
+
+  /**
+   * Gets the last phase of the given enum, which marks a finished purge.
+   *
+   * @param  phaseType  the enum of the phases
+   * @return            the last phase
+   */
+  static <P extends Enum<P> & PurgePhase> P done(Class<P> phaseType) {
+    P[] phases = phaseType.getEnumConstants();
+    return phases[phases.length - 1];
+  }
+
+  /**
+   * Gets the phase of the given enum with the given value.
+   *
+   * @param  phaseType  the enum of the phases
+   * @param  value      the value of the phase
+   * @return            the phase with the given value
+   */
+  static <P extends Enum<P> & PurgePhase> P fromValue(
+    Class<P> phaseType,
+    short value
+  ) {
+    for (P phase : phaseType.getEnumConstants()) {
+      if (phase.getValue() == value) {
+        return phase;
+      }
+    }
+    throw new IllegalArgumentException(
+      "Unknown " + phaseType.getSimpleName() + " value " + value
+    );
+  }
+}
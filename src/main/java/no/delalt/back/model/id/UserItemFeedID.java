@@ -0,0 +1,40 @@
+package no.delalt.back.model.id;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class UserItemFeedID implements Serializable {
+  private String userID;
+  private String itemID;
+
+  public UserItemFeedID() {}
+
+  public UserItemFeedID(String userID, String itemID) {
+    this.userID = userID;
+    this.itemID = itemID;
+  }
+
+  /**
+   * Overrides the equals method to compare two UserItemFeedID objects for equality.
+   *
+   * @param  o The object to compare with this UserItemFeedID.
+   * @return   true if the objects are equal, false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    UserItemFeedID that = (UserItemFeedID) o;
+    return (userID.equals(that.userID) && itemID.equals(that.itemID));
+  }
+
+  /**
+   * Calculates the hash code of the object based on the user and item properties.
+   *
+   * @return          The hash code of the object.
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(userID, itemID);
+  }
+}
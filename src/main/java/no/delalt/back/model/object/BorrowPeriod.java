@@ -0,0 +1,9 @@
+package no.delalt.back.model.object;
+
+import java.time.LocalDate;
+
+public interface BorrowPeriod {
+  LocalDate getStartDate();
+
+  LocalDate getEndDate();
+}
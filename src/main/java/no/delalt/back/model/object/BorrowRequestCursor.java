@@ -0,0 +1,40 @@
+package no.delalt.back.model.object;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public record BorrowRequestCursor(long createdAt, String borrowRequestID) {
+  private static final String SEPARATOR = ".";
+
+  /**
+   * Creates the cursor pointing after the given request.
+   *
+   * @param  createdAt        the creation time of the request
+   * @param  borrowRequestID  the ID of the request
+   * @return                  the cursor as a string
+   */
+  public static String encode(long createdAt, String borrowRequestID) {
+    return createdAt + SEPARATOR + borrowRequestID;
+  }
+
+  /**
+   * Parses a cursor returned by {@link #encode(long, String)}.
+   * Request IDs never contain the separator, so the first separator splits the cursor.
+   *
+   * @param  cursor  the cursor as a string
+   * @return         the parsed cursor
+   * @throws ResponseStatusException if the cursor is malformed
+   */
+  public static BorrowRequestCursor decode(String cursor)
+    throws ResponseStatusException {
+    int separatorIndex = cursor.indexOf(SEPARATOR);
+    try {
+      return new BorrowRequestCursor(
+        Long.parseLong(cursor.substring(0, separatorIndex)),
+        cursor.substring(separatorIndex + 1)
+      );
+    } catch (IndexOutOfBoundsException | NumberFormatException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package no.delalt.back.model.object;
+
+import no.delalt.back.model.dto.output.ChatMessageEventDTO;
+
+import java.util.List;
+
+public record ChatMessageEvent(
+  List<String> recipientIDs,
+  ChatMessageEventDTO payload
+) {}
@@ -0,0 +1,3 @@
+package no.delalt.back.model.object;
+
+public record CommunityMembership(String communityID, boolean isAdministrator) {}
@@ -0,0 +1,7 @@
+package no.delalt.back.model.object;
+
+public record ConversationParticipants(String user1ID, String user2ID) {
+  public boolean contains(String userID) {
+    return user1ID.equals(userID) || user2ID.equals(userID);
+  }
+}
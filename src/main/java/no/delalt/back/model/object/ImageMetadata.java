@@ -0,0 +1,3 @@
+package no.delalt.back.model.object;
+
+public record ImageMetadata(String contentHash, Long size, Long createdAt) {}
@@ -0,0 +1,20 @@
+package no.delalt.back.model.object;
+
+import no.delalt.back.model.enums.ImageSizeEnum;
+
+public record ImageRepresentation(
+  ImageMetadata metadata,
+  ImageSizeEnum size,
+  boolean isFallback
+) {
+  /**
+   * Returns the entity tag of the representation, which is unique per content and size.
+   *
+   * @return the entity tag without quotes
+   */
+  public String eTag() {
+    return size == null
+      ? metadata.contentHash()
+      : metadata.contentHash() + "-" + size.getValue();
+  }
+}
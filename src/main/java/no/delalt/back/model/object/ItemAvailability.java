@@ -0,0 +1,9 @@
+package no.delalt.back.model.object;
+
+import java.time.LocalDate;
+
+/**
+ * The busy days of an item from the start date on. Bit i of the words is set if the
+ * item is booked on the start date plus i days. The words are not modified once created.
+ */
+public record ItemAvailability(LocalDate startDate, long[] busyDays) {}
@@ -0,0 +1,44 @@
+package no.delalt.back.model.object;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public record ItemDistanceCursor(double distance, String itemID) {
+  private static final String SEPARATOR = "_";
+
+  /**
+   * Creates the cursor pointing after the given item.
+   * The distance is written in full, so that it is parsed back to the exact same value.
+   *
+   * @param  distance  the distance to the item
+   * @param  itemID    the ID of the item
+   * @return           the cursor as a string
+   */
+  public static String encode(double distance, String itemID) {
+    return distance + SEPARATOR + itemID;
+  }
+
+  /**
+   * Parses a cursor returned by {@link #encode(double, String)}.
+   *
+   * @param  cursor  the cursor as a string
+   * @return         the parsed cursor
+   * @throws ResponseStatusException if the cursor is malformed
+   */
+  public static ItemDistanceCursor decode(String cursor)
+    throws ResponseStatusException {
+    int separatorIndex = cursor.indexOf(SEPARATOR);
+    try {
+      double distance = Double.parseDouble(cursor.substring(0, separatorIndex));
+      if (!Double.isFinite(distance)) {
+        throw new NumberFormatException();
+      }
+      return new ItemDistanceCursor(
+        distance,
+        cursor.substring(separatorIndex + 1)
+      );
+    } catch (IndexOutOfBoundsException | NumberFormatException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package no.delalt.back.model.object;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public record ItemFeedCursor(long createdAt, String itemID) {
+  private static final String SEPARATOR = ".";
+
+  /**
+   * Creates the cursor pointing after the given item.
+   *
+   * @param  createdAt  the creation time of the item
+   * @param  itemID     the ID of the item
+   * @return            the cursor as a string
+   */
+  public static String encode(long createdAt, String itemID) {
+    return createdAt + SEPARATOR + itemID;
+  }
+
+  /**
+   * Parses a cursor returned by {@link #encode(long, String)}.
+   * Item IDs never contain the separator, so the first separator splits the cursor.
+   *
+   * @param  cursor  the cursor as a string
+   * @return         the parsed cursor
+   * @throws ResponseStatusException if the cursor is malformed
+   */
+  public static ItemFeedCursor decode(String cursor)
+    throws ResponseStatusException {
+    int separatorIndex = cursor.indexOf(SEPARATOR);
+    try {
+      return new ItemFeedCursor(
+        Long.parseLong(cursor.substring(0, separatorIndex)),
+        cursor.substring(separatorIndex + 1)
+      );
+    } catch (IndexOutOfBoundsException | NumberFormatException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package no.delalt.back.model.object;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public record ItemSearchCursor(long score, String itemID) {
+  private static final String SEPARATOR = ".";
+
+  /**
+   * Creates the cursor pointing after the given search hit.
+   *
+   * @param  score   the score of the hit
+   * @param  itemID  the ID of the item
+   * @return         the cursor as a string
+   */
+  public static String encode(long score, String itemID) {
+    return score + SEPARATOR + itemID;
+  }
+
+  /**
+   * Parses a cursor returned by {@link #encode(long, String)}.
+   *
+   * @param  cursor  the cursor as a string
+   * @return         the parsed cursor
+   * @throws ResponseStatusException if the cursor is malformed
+   */
+  public static ItemSearchCursor decode(String cursor)
+    throws ResponseStatusException {
+    int separatorIndex = cursor.indexOf(SEPARATOR);
+    try {
+      return new ItemSearchCursor(
+        Long.parseLong(cursor.substring(0, separatorIndex)),
+        cursor.substring(separatorIndex + 1)
+      );
+    } catch (IndexOutOfBoundsException | NumberFormatException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+}
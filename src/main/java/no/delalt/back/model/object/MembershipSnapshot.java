@@ -0,0 +1,74 @@
+package no.delalt.back.model.object;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The communities of a user, as a sorted array of community IDs and a bitset marking
+ * the communities the user is an administrator of.
+ */
+public final class MembershipSnapshot {
+  private final String[] communityIDs;
+  private final BitSet administrators;
+
+  private MembershipSnapshot(String[] communityIDs, BitSet administrators) {
+    this.communityIDs = communityIDs;
+    this.administrators = administrators;
+  }
+
+  /**
+   * Creates a snapshot of the given memberships.
+   *
+   * @param  memberships  the memberships of a user
+   * @return              the snapshot of the memberships
+   */
+  public static MembershipSnapshot of(List<CommunityMembership> memberships) {
+    List<CommunityMembership> sorted = memberships
+      .stream()
+      .sorted(Comparator.comparing(CommunityMembership::communityID))
+      .toList();
+    String[] communityIDs = new String[sorted.size()];
+    BitSet administrators = new BitSet(sorted.size());
+    for (int i = 0; i < sorted.size(); i++) {
+      communityIDs[i] = sorted.get(i).communityID();
+      administrators.set(i, sorted.get(i).isAdministrator());
+    }
+    return new MembershipSnapshot(communityIDs, administrators);
+  }
+
+  /**
+   * Checks if the user is a member of a community.
+   *
+   * @param  communityID  the ID of the community
+   * @return              true if the user is a member of the community
+   */
+  public boolean isMember(String communityID) {
+    return indexOf(communityID) >= 0;
+  }
+
+  /**
+   * Checks if the user is an administrator of a community.
+   *
+   * @param  communityID  the ID of the community
+   * @return              true if the user is an administrator of the community
+   */
+  public boolean isAdministrator(String communityID) {
+    int index = indexOf(communityID);
+    return index >= 0 && administrators.get(index);
+  }
+
+  /**
+   * Finds the position of a community in the snapshot.
+   *
+   * @param  communityID  the ID of the community
+   * @return              the position of the community, or a negative number if it is not present
+   */
+  private int indexOf(String communityID) {
+    if (communityID == null) {
+      return -1;
+    }
+    return Arrays.binarySearch(communityIDs, communityID);
+  }
+}
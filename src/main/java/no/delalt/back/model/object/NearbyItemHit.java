@@ -0,0 +1,7 @@
+package no.delalt.back.model.object;
+
+public interface NearbyItemHit {
+  String getItemID();
+
+  double getDistance();
+}
@@ -0,0 +1,15 @@
+package no.delalt.back.model.object;
+
+import org.locationtech.jts.geom.Point;
+
+import java.time.LocalDate;
+
+public record UserSnapshot(
+  String userID,
+  Point coordinates,
+  LocalDate deletedAt
+) {
+  public boolean isDeleted() {
+    return deletedAt != null;
+  }
+}
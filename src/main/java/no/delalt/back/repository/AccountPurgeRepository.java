@@ -0,0 +1,19 @@
+package no.delalt.back.repository;
+
+import no.delalt.back.model.dao.AccountPurgeDAO;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccountPurgeRepository
+  extends PurgeRepository<AccountPurgeDAO> {
+  @Override
+  @Query(
+    "SELECT p.userID FROM AccountPurgeDAO p " +
+    "WHERE p.phase < :donePhase ORDER BY p.createdAt"
+  )
+  List<String> findPendingIDs(@Param("donePhase") short donePhase);
+}
@@ -0,0 +1,22 @@
+package no.delalt.back.repository;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+@NoRepositoryBean
+public interface AdvisoryLockRepository<T, ID> extends Repository<T, ID> {
+  /**
+   * Tries to take a Postgres advisory lock that is held until the end of the current
+   * transaction. Used by background jobs so that only one instance runs them at a time.
+   *
+   * @param  key  the key of the lock
+   * @return      true if the lock was taken, false if another transaction holds it
+   */
+  @Query(
+    value = "SELECT pg_try_advisory_xact_lock(:key)",
+    nativeQuery = true
+  )
+  boolean tryAdvisoryLock(@Param("key") long key);
+}
@@ -4,7 +4,9 @@ import no.delalt.back.model.dao.BorrowAgreementDAO;
 import no.delalt.back.model.dao.ItemDAO;
 import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.model.dto.output.BorrowDatesDTO;
+import no.delalt.back.model.object.BorrowPeriod;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -29,11 +31,17 @@ public interface BorrowAgreementRepository
     int status
   );
 
+  /**
+   * Checks if an agreement for the item overlaps the timeframe, with both ends included.
+   * Uses the exclusion constraint on the period of agreements, which is a GiST index on the item and the period.
+   */
   @Query(
-    "SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM BorrowAgreementDAO b WHERE b.item = :item AND b.endDate >= :startDate AND b.startDate <= :endDate"
+    value = "SELECT EXISTS (SELECT 1 FROM public.borrow_agreement b " +
+    "WHERE b.item_id = :itemID AND b.period && daterange(:startDate, :endDate, '[]'))",
+    nativeQuery = true
   )
   boolean existsByItemAndTimeframe(
-    @Param("item") ItemDAO item,
+    @Param("itemID") String itemID,
     @Param("startDate") LocalDate startDate,
     @Param("endDate") LocalDate endDate
   );
@@ -46,5 +54,28 @@ public interface BorrowAgreementRepository
     @Param("currentDate") LocalDate currentDate
   );
 
-  List<BorrowAgreementDAO> findAllByOwner(UserDAO userDAO);
+  /**
+   * Finds the agreements for the item that overlap the timeframe, with both ends included.
+   * Uses the exclusion constraint on the period of agreements, which is a GiST index on the item and the period.
+   */
+  @Query(
+    value = "SELECT b.start_date AS \"startDate\", b.end_date AS \"endDate\" " +
+    "FROM public.borrow_agreement b " +
+    "WHERE b.item_id = :itemID AND b.period && daterange(:currentDate, :lastDate, '[]')",
+    nativeQuery = true
+  )
+  List<BorrowPeriod> findBorrowPeriodsForItem(
+    @Param("itemID") String itemID,
+    @Param("currentDate") LocalDate currentDate,
+    @Param("lastDate") LocalDate lastDate
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.borrow_agreement WHERE borrow_agreement_id IN (" +
+    "SELECT borrow_agreement_id FROM public.borrow_agreement " +
+    "WHERE owner_id = :userID LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForOwner(@Param("userID") String userID, @Param("limit") int limit);
 }
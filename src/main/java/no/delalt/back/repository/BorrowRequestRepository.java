@@ -3,47 +3,150 @@ package no.delalt.back.repository;
 import no.delalt.back.model.dao.BorrowRequestDAO;
 import no.delalt.back.model.dao.ItemDAO;
 import no.delalt.back.model.dao.UserDAO;
+import no.delalt.back.model.object.BorrowPeriod;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BorrowRequestRepository
-  extends JpaRepository<BorrowRequestDAO, String> {
-  List<BorrowRequestDAO> findAllByOwnerAndIsProcessed(
-    UserDAO owner,
-    boolean isProcessed
-  );
-  List<BorrowRequestDAO> findAllByOwnerAndIsProcessedAndStatus(
-    UserDAO owner,
-    boolean isProcessed,
-    int status
-  );
-  List<BorrowRequestDAO> findAllByRequesterAndIsProcessed(
-    UserDAO requester,
-    boolean isProcessed
+  extends
+    JpaRepository<BorrowRequestDAO, String>,
+    AdvisoryLockRepository<BorrowRequestDAO, String> {
+  /**
+   * Finds the requests of an owner with the given statuses, newest first, after the keyset
+   * of the previous page. The item, its owner, the owner and the requester are fetched along,
+   * and the owner inbox index covers the filter.
+   */
+  @Query(
+    "SELECT br FROM BorrowRequestDAO br " +
+    "JOIN FETCH br.item i " +
+    "JOIN FETCH i.user " +
+    "JOIN FETCH br.owner " +
+    "JOIN FETCH br.requester " +
+    "WHERE br.owner.userID = :userID " +
+    "AND br.isProcessed IN (:processedStates) " +
+    "AND br.status IN (:statuses) " +
+    "AND (:borrowRequestID IS NULL OR br.createdAt < :createdAt " +
+    "OR (br.createdAt = :createdAt AND br.borrowRequestID < :borrowRequestID)) " +
+    "ORDER BY br.createdAt DESC, br.borrowRequestID DESC"
+  )
+  List<BorrowRequestDAO> findInboxForOwner(
+    @Param("userID") String userID,
+    @Param("processedStates") Collection<Boolean> processedStates,
+    @Param("statuses") Collection<Short> statuses,
+    @Param("createdAt") long createdAt,
+    @Param("borrowRequestID") String borrowRequestID,
+    Pageable pageable
   );
-  List<BorrowRequestDAO> findAllByRequesterAndIsProcessedAndStatus(
-    UserDAO requester,
-    boolean isProcessed,
-    int status
+
+  /**
+   * Finds the requests of a requester with the given statuses, newest first, after the keyset
+   * of the previous page. The item, its owner, the owner and the requester are fetched along,
+   * and the requester inbox index covers the filter.
+   */
+  @Query(
+    "SELECT br FROM BorrowRequestDAO br " +
+    "JOIN FETCH br.item i " +
+    "JOIN FETCH i.user " +
+    "JOIN FETCH br.owner " +
+    "JOIN FETCH br.requester " +
+    "WHERE br.requester.userID = :userID " +
+    "AND br.isProcessed IN (:processedStates) " +
+    "AND br.status IN (:statuses) " +
+    "AND (:borrowRequestID IS NULL OR br.createdAt < :createdAt " +
+    "OR (br.createdAt = :createdAt AND br.borrowRequestID < :borrowRequestID)) " +
+    "ORDER BY br.createdAt DESC, br.borrowRequestID DESC"
+  )
+  List<BorrowRequestDAO> findInboxForRequester(
+    @Param("userID") String userID,
+    @Param("processedStates") Collection<Boolean> processedStates,
+    @Param("statuses") Collection<Short> statuses,
+    @Param("createdAt") long createdAt,
+    @Param("borrowRequestID") String borrowRequestID,
+    Pageable pageable
   );
+
   boolean existsByRequesterAndIsProcessedAndItem(
     UserDAO requester,
     boolean isProcessed,
     ItemDAO item
   );
 
+  /**
+   * Finds the pending requests for the item that overlap the timeframe, with both ends included.
+   * Uses the partial GiST index on the item and the period of pending requests.
+   */
   @Query(
-    "SELECT br FROM BorrowRequestDAO br WHERE br.item = :item AND br.startDate <= :endDate AND br.endDate >= :startDate AND br.isProcessed = false"
+    value = "SELECT br.* FROM public.borrow_request br " +
+    "WHERE br.item_id = :itemID AND br.is_processed = false " +
+    "AND br.period && daterange(:startDate, :endDate, '[]')",
+    nativeQuery = true
   )
   List<BorrowRequestDAO> findPendingRequestsByItemInTimeframe(
-    @Param("item") ItemDAO item,
+    @Param("itemID") String itemID,
     @Param("startDate") LocalDate startDate,
     @Param("endDate") LocalDate endDate
   );
+
+  /**
+   * Deletes the requests of a user that do not back a borrow agreement of another user.
+   * These are the unprocessed and closed requests the user sent or received, and the
+   * accepted requests for items of the user, whose agreements are deleted first.
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.borrow_request WHERE borrow_request_id IN (" +
+    "SELECT borrow_request_id FROM public.borrow_request " +
+    "WHERE ((requester_id = :userID OR owner_id = :userID) " +
+    "AND (is_processed = false OR status IN (:closedStatuses))) " +
+    "OR (owner_id = :userID AND is_processed = true AND status = :acceptedStatus) " +
+    "LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForUser(
+    @Param("userID") String userID,
+    @Param("closedStatuses") Collection<Short> closedStatuses,
+    @Param("acceptedStatus") short acceptedStatus,
+    @Param("limit") int limit
+  );
+
+  /**
+   * Finds the periods of the pending requests for the item that overlap the timeframe,
+   * with both ends included. Uses the partial GiST index on the item and the period of pending requests.
+   */
+  @Query(
+    value = "SELECT br.start_date AS \"startDate\", br.end_date AS \"endDate\" " +
+    "FROM public.borrow_request br " +
+    "WHERE br.item_id = :itemID AND br.is_processed = false " +
+    "AND br.period && daterange(:currentDate, :lastDate, '[]')",
+    nativeQuery = true
+  )
+  List<BorrowPeriod> findPendingPeriodsForItem(
+    @Param("itemID") String itemID,
+    @Param("currentDate") LocalDate currentDate,
+    @Param("lastDate") LocalDate lastDate
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "UPDATE public.borrow_request " +
+    "SET status = :canceledStatus, is_processed = true, version = version + 1 " +
+    "WHERE borrow_request_id IN (SELECT borrow_request_id FROM public.borrow_request " +
+    "WHERE is_processed = false AND end_date < :currentDate " +
+    "LIMIT :limit FOR UPDATE SKIP LOCKED)",
+    nativeQuery = true
+  )
+  int cancelEndedBefore(
+    @Param("currentDate") LocalDate currentDate,
+    @Param("canceledStatus") short canceledStatus,
+    @Param("limit") int limit
+  );
 }
@@ -4,6 +4,8 @@ import no.delalt.back.model.dao.ChatMessageDAO;
 import no.delalt.back.model.dao.ConversationDAO;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +17,27 @@ public interface ChatMessageRepository
     ConversationDAO conversation,
     Pageable pageable
   );
+
+  List<ChatMessageDAO> findByConversationOrderByMessageIDDesc(
+    ConversationDAO conversation,
+    Pageable pageable
+  );
+
+  List<ChatMessageDAO> findByConversationAndMessageIDLessThanOrderByMessageIDDesc(
+    ConversationDAO conversation,
+    String messageID,
+    Pageable pageable
+  );
+
+  @Query(
+    "SELECT m FROM ChatMessageDAO m JOIN FETCH m.sendingUser " +
+    "WHERE m.messageID > :after AND m.conversation IN (" +
+    "SELECT uc.conversation FROM UserConversationDAO uc WHERE uc.user.userID = :userID) " +
+    "ORDER BY m.messageID"
+  )
+  List<ChatMessageDAO> findForUserAfter(
+    @Param("userID") String userID,
+    @Param("after") String after,
+    Pageable pageable
+  );
 }
@@ -5,11 +5,14 @@ import no.delalt.back.model.dao.CommunityItemDAO;
 import no.delalt.back.model.dao.ItemDAO;
 import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.model.id.CommunityItemID;
+import no.delalt.back.model.object.NearbyItemHit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,6 +25,23 @@ public interface CommunityItemRepository
     UserDAO user
   );
 
+  @Query(
+    "SELECT ci.community.communityID " +
+    "FROM CommunityItemDAO ci " +
+    "WHERE ci.item = :item"
+  )
+  List<String> findCommunityIDsByItem(@Param("item") ItemDAO item);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    "DELETE FROM CommunityItemDAO ci " +
+    "WHERE ci.item = :item AND ci.community.communityID IN :communityIDs"
+  )
+  int deleteByItemAndCommunityIDIn(
+    @Param("item") ItemDAO item,
+    @Param("communityIDs") Collection<String> communityIDs
+  );
+
   //TODO Make this method retrieve the user's communities itself
   @Query(
     "SELECT DISTINCT i " +
@@ -33,4 +53,79 @@ public interface CommunityItemRepository
     @Param("communities") List<CommunityDAO> communities,
     @Param("user") UserDAO user
   );
+
+  /**
+   * Returns the nearest borrowable items of other users, ordered by distance and then by ID.
+   * The distance of an item is the distance to the nearest community of the item that the user may see,
+   * which are open communities (visibility 2) and communities the user is a member of.
+   * Distances are in meters. Rows are read in the order of the geography GiST index of the community
+   * coordinates, and every item is only returned for its nearest community, so the query stops as soon
+   * as the page is full.
+   */
+  @Query(
+    value = "SELECT ci.item_id AS \"itemID\", " +
+    "CAST(c.coordinates AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:x, :y), 4326) AS geography) AS \"distance\" " +
+    "FROM public.community c " +
+    "JOIN public.community_item ci ON ci.community_id = c.community_id " +
+    "JOIN public.item i ON i.item_id = ci.item_id " +
+    "WHERE c.coordinates IS NOT NULL AND c.deleted_at IS NULL AND (c.visibility = 2 OR EXISTS (" +
+    "SELECT 1 FROM public.user_community uc " +
+    "WHERE uc.community_id = c.community_id AND uc.user_id = :userID)) " +
+    "AND i.is_deleted = false AND i.is_for_giving = false AND i.user_id <> :userID " +
+    "AND NOT EXISTS (SELECT 1 FROM public.community_item nci " +
+    "JOIN public.community nc ON nc.community_id = nci.community_id " +
+    "WHERE nci.item_id = ci.item_id AND nc.community_id <> c.community_id " +
+    "AND nc.coordinates IS NOT NULL AND nc.deleted_at IS NULL AND (nc.visibility = 2 OR EXISTS (" +
+    "SELECT 1 FROM public.user_community nuc " +
+    "WHERE nuc.community_id = nc.community_id AND nuc.user_id = :userID)) " +
+    "AND (CAST(nc.coordinates AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:x, :y), 4326) AS geography), nc.community_id) < " +
+    "(CAST(c.coordinates AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:x, :y), 4326) AS geography), c.community_id)) " +
+    "AND (CAST(:afterItemID AS VARCHAR) IS NULL OR " +
+    "(CAST(c.coordinates AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:x, :y), 4326) AS geography), ci.item_id) > " +
+    "(:afterDistance, :afterItemID)) " +
+    "ORDER BY CAST(c.coordinates AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:x, :y), 4326) AS geography), ci.item_id " +
+    "LIMIT :limit",
+    nativeQuery = true
+  )
+  List<NearbyItemHit> findNearestBorrowableItems(
+    @Param("userID") String userID,
+    @Param("x") double x,
+    @Param("y") double y,
+    @Param("afterDistance") double afterDistance,
+    @Param("afterItemID") String afterItemID,
+    @Param("limit") int limit
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.community_item WHERE (community_id, item_id) IN (" +
+    "SELECT ci.community_id, ci.item_id FROM public.community_item ci " +
+    "JOIN public.item i ON i.item_id = ci.item_id " +
+    "WHERE i.user_id = :userID LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForItemOwner(
+    @Param("userID") String userID,
+    @Param("limit") int limit
+  );
+
+  @Query(
+    value = "SELECT item_id FROM public.community_item " +
+    "WHERE community_id = :communityID LIMIT :limit",
+    nativeQuery = true
+  )
+  List<String> findItemIDsByCommunityID(
+    @Param("communityID") String communityID,
+    @Param("limit") int limit
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    "DELETE FROM CommunityItemDAO ci " +
+    "WHERE ci.community.communityID = :communityID AND ci.item.itemID IN :itemIDs"
+  )
+  int deleteByCommunityIDAndItemIDIn(
+    @Param("communityID") String communityID,
+    @Param("itemIDs") Collection<String> itemIDs
+  );
 }
@@ -0,0 +1,19 @@
+package no.delalt.back.repository;
+
+import no.delalt.back.model.dao.CommunityPurgeDAO;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CommunityPurgeRepository
+  extends PurgeRepository<CommunityPurgeDAO> {
+  @Override
+  @Query(
+    "SELECT p.communityID FROM CommunityPurgeDAO p " +
+    "WHERE p.phase < :donePhase ORDER BY p.createdAt"
+  )
+  List<String> findPendingIDs(@Param("donePhase") short donePhase);
+}
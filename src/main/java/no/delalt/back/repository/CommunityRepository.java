@@ -11,9 +11,11 @@ import java.util.List;
 @Repository
 public interface CommunityRepository
   extends JpaRepository<CommunityDAO, String> {
+  boolean existsByCommunityIDAndDeletedAtIsNull(String communityID);
+
   @Query(
-    value = "SELECT c.* FROM public.community c WHERE c.coordinates IS NOT NULL AND " +
-    "ST_DWithin(ST_GeographyFromText('SRID=4326;POINT(' || :x || ' ' || :y || ')'), c.coordinates, :distanceInMeters) AND " +
+    value = "SELECT c.* FROM public.community c WHERE c.coordinates IS NOT NULL AND c.deleted_at IS NULL AND " +
+    "ST_DWithin(CAST(c.coordinates AS geography), CAST(ST_SetSRID(ST_MakePoint(:x, :y), 4326) AS geography), :distanceInMeters) AND " +
     "NOT EXISTS (SELECT 1 FROM user_community uc WHERE uc.community_id = c.community_id AND uc.user_id = :userID)",
     nativeQuery = true
   )
@@ -25,7 +27,8 @@ public interface CommunityRepository
   );
 
   @Query(
-    value = "SELECT CASE WHEN COUNT(*) > 0 THEN TRUE ELSE FALSE END FROM community c WHERE c.community_id = :communityID AND ST_DWithin(ST_GeographyFromText('SRID=4326;POINT(' || :x || ' ' || :y || ')'), c.coordinates, :distanceInMeters)",
+    value = "SELECT CASE WHEN COUNT(*) > 0 THEN TRUE ELSE FALSE END FROM community c WHERE c.community_id = :communityID AND c.deleted_at IS NULL AND " +
+    "ST_DWithin(CAST(c.coordinates AS geography), CAST(ST_SetSRID(ST_MakePoint(:x, :y), 4326) AS geography), :distanceInMeters)",
     nativeQuery = true
   )
   boolean isUserNearCommunity(
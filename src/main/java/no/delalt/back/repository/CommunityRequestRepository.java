@@ -4,6 +4,9 @@ import no.delalt.back.model.dao.CommunityDAO;
 import no.delalt.back.model.dao.CommunityRequestDAO;
 import no.delalt.back.model.dao.UserDAO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,5 +19,25 @@ public interface CommunityRequestRepository
     UserDAO user
   );
   List<CommunityRequestDAO> findAllByCommunity(CommunityDAO community);
-  List<CommunityRequestDAO> findAllByUser(UserDAO user);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.community_request WHERE community_request_id IN (" +
+    "SELECT community_request_id FROM public.community_request " +
+    "WHERE user_id = :userID LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForUser(@Param("userID") String userID, @Param("limit") int limit);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.community_request WHERE community_request_id IN (" +
+    "SELECT community_request_id FROM public.community_request " +
+    "WHERE community_id = :communityID LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForCommunity(
+    @Param("communityID") String communityID,
+    @Param("limit") int limit
+  );
 }
@@ -2,7 +2,10 @@ package no.delalt.back.repository;
 
 import no.delalt.back.model.dao.ConversationDAO;
 import no.delalt.back.model.dao.UserDAO;
+import no.delalt.back.model.object.ConversationParticipants;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,4 +17,12 @@ public interface ConversationRepository
     UserDAO user1DAO,
     UserDAO user2DAO
   );
+
+  @Query(
+    "SELECT new no.delalt.back.model.object.ConversationParticipants(c.user1.userID, c.user2.userID) " +
+    "FROM ConversationDAO c WHERE c.conversationID = :conversationID"
+  )
+  Optional<ConversationParticipants> findParticipantsByConversationID(
+    @Param("conversationID") String conversationID
+  );
 }
@@ -4,6 +4,7 @@ import no.delalt.back.model.dao.CommunityDAO;
 import no.delalt.back.model.dao.GatheringDAO;
 import no.delalt.back.model.dto.output.GatheringDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,7 +14,9 @@ import java.util.List;
 
 @Repository
 public interface GatheringRepository
-  extends JpaRepository<GatheringDAO, String> {
+  extends
+    JpaRepository<GatheringDAO, String>,
+    AdvisoryLockRepository<GatheringDAO, String> {
   @Query(
     "SELECT new no.delalt.back.model.dto.output.GatheringDTO(g.gatheringID, g.title, g.description, g.user, g.dateAndTime) " +
     "FROM GatheringDAO g WHERE g.community = :community AND g.isExpired = false AND g.dateAndTime > :dateTime"
@@ -22,4 +25,29 @@ public interface GatheringRepository
     @Param("community") CommunityDAO community,
     @Param("dateTime") LocalDateTime dateTime
   );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.gathering WHERE gathering_id IN (" +
+    "SELECT gathering_id FROM public.gathering " +
+    "WHERE community_id = :communityID LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForCommunity(
+    @Param("communityID") String communityID,
+    @Param("limit") int limit
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "UPDATE public.gathering SET is_expired = true " +
+    "WHERE gathering_id IN (SELECT gathering_id FROM public.gathering " +
+    "WHERE is_expired = false AND date_and_time <= :dateTime " +
+    "LIMIT :limit FOR UPDATE SKIP LOCKED)",
+    nativeQuery = true
+  )
+  int expireBefore(
+    @Param("dateTime") LocalDateTime dateTime,
+    @Param("limit") int limit
+  );
 }
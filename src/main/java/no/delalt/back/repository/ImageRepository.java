@@ -1,13 +1,44 @@
 package no.delalt.back.repository;
 
 import no.delalt.back.model.dao.ImageDAO;
-import no.delalt.back.model.dao.UserDAO;
+import no.delalt.back.model.object.ImageMetadata;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ImageRepository extends JpaRepository<ImageDAO, String> {
-  List<ImageDAO> findAllByUser(UserDAO userDAO);
+  boolean existsByContentHash(String contentHash);
+
+  /**
+   * Locks the given content hash until the end of the current transaction, so an
+   * upload of the content and the removal of unreferenced content never interleave.
+   *
+   * @param  contentHash  the content hash to lock
+   * @return              always 1
+   */
+  @Query(
+    value = "SELECT 1 FROM pg_advisory_xact_lock(7341, hashtext(:contentHash))",
+    nativeQuery = true
+  )
+  int lockContentHash(@Param("contentHash") String contentHash);
+
+  @Query(
+    "SELECT new no.delalt.back.model.object.ImageMetadata(i.contentHash, i.size, i.createdAt) " +
+    "FROM ImageDAO i WHERE i.imageID = :imageID"
+  )
+  Optional<ImageMetadata> findMetadataByImageID(
+    @Param("imageID") String imageID
+  );
+
+  @Query("SELECT i FROM ImageDAO i WHERE i.user.userID = :userID")
+  List<ImageDAO> findAllByUserID(
+    @Param("userID") String userID,
+    Pageable pageable
+  );
 }
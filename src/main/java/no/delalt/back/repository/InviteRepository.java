@@ -1,13 +1,48 @@
 package no.delalt.back.repository;
 
 import no.delalt.back.model.dao.InviteDAO;
-import no.delalt.back.model.dao.UserDAO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-
 @Repository
-public interface InviteRepository extends JpaRepository<InviteDAO, String> {
-  List<InviteDAO> findAllByUser(UserDAO user);
+public interface InviteRepository
+  extends
+    JpaRepository<InviteDAO, String>,
+    AdvisoryLockRepository<InviteDAO, String> {
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "UPDATE public.invite SET is_expired = true " +
+    "WHERE invite_id IN (SELECT invite_id FROM public.invite " +
+    "WHERE user_id = :userID AND is_expired = false LIMIT :limit)",
+    nativeQuery = true
+  )
+  int expireForUser(@Param("userID") String userID, @Param("limit") int limit);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.invite WHERE invite_id IN (" +
+    "SELECT invite_id FROM public.invite " +
+    "WHERE community_id = :communityID LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForCommunity(
+    @Param("communityID") String communityID,
+    @Param("limit") int limit
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "UPDATE public.invite SET is_expired = true " +
+    "WHERE invite_id IN (SELECT invite_id FROM public.invite " +
+    "WHERE is_expired = false AND created_at <= :createdBefore " +
+    "LIMIT :limit FOR UPDATE SKIP LOCKED)",
+    nativeQuery = true
+  )
+  int expireCreatedBefore(
+    @Param("createdBefore") long createdBefore,
+    @Param("limit") int limit
+  );
 }
@@ -2,13 +2,84 @@ package no.delalt.back.repository;
 
 import no.delalt.back.model.dao.ItemDAO;
 import no.delalt.back.model.dao.UserDAO;
+import no.delalt.back.model.object.ItemSearchHit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<ItemDAO, String> {
+  /**
+   * The expression of the search vector of an item. Titles weigh more than descriptions.
+   * The simple configuration is used since items are written in several languages.
+   */
+  String SEARCH_VECTOR =
+    "setweight(to_tsvector('simple', coalesce(title, '')), 'A') || " +
+    "setweight(to_tsvector('simple', coalesce(description, '')), 'B')";
+
   List<ItemDAO> findAllByUser(UserDAO user);
   List<ItemDAO> findAllByUserAndIsDeletedIsFalse(UserDAO user);
+
+  @Query(
+    "SELECT i FROM ItemDAO i JOIN FETCH i.user WHERE i.itemID IN :itemIDs"
+  )
+  List<ItemDAO> findAllWithUserByItemIDIn(
+    @Param("itemIDs") Collection<String> itemIDs
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "UPDATE public.item SET search_vector = " +
+    SEARCH_VECTOR +
+    " WHERE item_id IN (:itemIDs)",
+    nativeQuery = true
+  )
+  int updateSearchVectors(@Param("itemIDs") Collection<String> itemIDs);
+
+  @Query(
+    value = "SELECT h.item_id AS \"itemID\", h.score AS \"score\" FROM (" +
+    "SELECT i.item_id, CAST(1000000 * (" +
+    "ts_rank(i.search_vector, to_tsquery('simple', :tsQuery)) + " +
+    "word_similarity(:text, i.title)) AS BIGINT) AS score " +
+    "FROM public.item i " +
+    "WHERE i.is_deleted = false AND i.user_id <> :userID " +
+    "AND (i.search_vector @@ to_tsquery('simple', :tsQuery) OR :text <% i.title) " +
+    "AND EXISTS (SELECT 1 FROM public.community_item ci " +
+    "JOIN public.user_community uc ON uc.community_id = ci.community_id " +
+    "JOIN public.community c ON c.community_id = ci.community_id " +
+    "WHERE ci.item_id = i.item_id AND uc.user_id = :userID AND c.deleted_at IS NULL " +
+    "AND (CAST(:communityID AS VARCHAR) IS NULL OR ci.community_id = :communityID))" +
+    ") h " +
+    "WHERE CAST(:afterItemID AS VARCHAR) IS NULL OR h.score < :afterScore " +
+    "OR (h.score = :afterScore AND h.item_id < :afterItemID) " +
+    "ORDER BY h.score DESC, h.item_id DESC LIMIT :limit",
+    nativeQuery = true
+  )
+  List<ItemSearchHit> searchForUser(
+    @Param("userID") String userID,
+    @Param("tsQuery") String tsQuery,
+    @Param("text") String text,
+    @Param("communityID") String communityID,
+    @Param("afterScore") long afterScore,
+    @Param("afterItemID") String afterItemID,
+    @Param("limit") int limit
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "UPDATE public.item SET is_deleted = true, image = NULL " +
+    "WHERE item_id IN (SELECT item_id FROM public.item " +
+    "WHERE user_id = :userID AND (is_deleted = false OR image IS NOT NULL) " +
+    "LIMIT :limit)",
+    nativeQuery = true
+  )
+  int softDeleteForUser(
+    @Param("userID") String userID,
+    @Param("limit") int limit
+  );
 }
@@ -0,0 +1,19 @@
+package no.delalt.back.repository;
+
+import no.delalt.back.model.dao.PurgeDAO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.List;
+
+@NoRepositoryBean
+public interface PurgeRepository<D extends PurgeDAO>
+  extends JpaRepository<D, String>, AdvisoryLockRepository<D, String> {
+  /**
+   * Finds the IDs of the purges that are not done yet, oldest first.
+   *
+   * @param  donePhase  the value of the phase that marks a finished purge
+   * @return            the IDs of the pending purges
+   */
+  List<String> findPendingIDs(short donePhase);
+}
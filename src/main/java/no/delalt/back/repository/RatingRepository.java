@@ -4,6 +4,7 @@ import no.delalt.back.model.dao.RatingDAO;
 import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.model.dto.output.RatingsDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -24,5 +25,14 @@ public interface RatingRepository extends JpaRepository<RatingDAO, String> {
   )
   RatingsDTO getRatingsSummaryForBorrower(@Param("user") UserDAO user);
 
-  List<RatingDAO> findAllByOwner(UserDAO userDAO);
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.rating WHERE item_id IN (" +
+    "SELECT r.item_id FROM public.rating r WHERE r.owner_id = :userID " +
+    "OR r.borrow_agreement_id IN (SELECT ba.borrow_agreement_id " +
+    "FROM public.borrow_agreement ba WHERE ba.owner_id = :userID) " +
+    "LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForOwner(@Param("userID") String userID, @Param("limit") int limit);
 }
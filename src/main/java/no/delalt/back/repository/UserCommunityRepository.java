@@ -4,7 +4,11 @@ import no.delalt.back.model.dao.CommunityDAO;
 import no.delalt.back.model.dao.UserCommunityDAO;
 import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.model.id.UserCommunityID;
+import no.delalt.back.model.object.CommunityMembership;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -18,10 +22,43 @@ public interface UserCommunityRepository
     String userID,
     String communityID
   );
-  List<UserCommunityDAO> findAllByUser(UserDAO user);
+  List<UserCommunityDAO> findAllByUserAndCommunity_DeletedAtIsNull(
+    UserDAO user
+  );
   List<UserCommunityDAO> findAllByCommunity(CommunityDAO community);
   UserCommunityDAO findByCommunityAndIsAdministratorTrue(
     CommunityDAO community
   );
-  List<UserCommunityDAO> findByUserAndIsAdministratorTrue(UserDAO user);
+  List<UserCommunityDAO> findByUserAndIsAdministratorTrueAndCommunity_DeletedAtIsNull(
+    UserDAO user
+  );
+
+  @Query(
+    "SELECT new no.delalt.back.model.object.CommunityMembership(uc.community.communityID, uc.isAdministrator) " +
+    "FROM UserCommunityDAO uc WHERE uc.user.userID = :userID AND uc.community.deletedAt IS NULL"
+  )
+  List<CommunityMembership> findMembershipsByUserID(
+    @Param("userID") String userID
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.user_community WHERE (community_id, user_id) IN (" +
+    "SELECT community_id, user_id FROM public.user_community " +
+    "WHERE user_id = :userID LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForUser(@Param("userID") String userID, @Param("limit") int limit);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.user_community WHERE (community_id, user_id) IN (" +
+    "SELECT community_id, user_id FROM public.user_community " +
+    "WHERE community_id = :communityID LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForCommunity(
+    @Param("communityID") String communityID,
+    @Param("limit") int limit
+  );
 }
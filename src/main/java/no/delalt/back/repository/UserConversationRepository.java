@@ -1,9 +1,16 @@
 package no.delalt.back.repository;
 
+import no.delalt.back.model.dao.ConversationDAO;
 import no.delalt.back.model.dao.UserConversationDAO;
 import no.delalt.back.model.dao.UserDAO;
+import no.delalt.back.model.dto.output.ConversationDTO;
+import no.delalt.back.model.dto.output.UnreadCountDTO;
 import no.delalt.back.model.id.UserConversationID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +19,64 @@ import java.util.List;
 public interface UserConversationRepository
   extends JpaRepository<UserConversationDAO, UserConversationID> {
   List<UserConversationDAO> findByUser(UserDAO user);
+
+  @Query(
+    "SELECT new no.delalt.back.model.dto.output.ConversationDTO(" +
+    "c.conversationID, m.messageID, m.text, m.timeSent, m.sendingUser.userID, " +
+    "o.userID, o.firstName, o.lastName, o.image) " +
+    "FROM UserConversationDAO uc " +
+    "JOIN uc.conversation c " +
+    "JOIN c.lastMessage m " +
+    "JOIN UserDAO o ON (o = c.user1 OR o = c.user2) AND o.userID <> :userID " +
+    "WHERE uc.user.userID = :userID " +
+    "AND (:before IS NULL OR m.messageID < :before) " +
+    "ORDER BY m.messageID DESC"
+  )
+  List<ConversationDTO> findInboxForUser(
+    @Param("userID") String userID,
+    @Param("before") String before,
+    Pageable pageable
+  );
+
+  @Query(
+    "SELECT new no.delalt.back.model.dto.output.UnreadCountDTO(" +
+    "uc.conversation.conversationID, uc.unreadCount, uc.lastReadMessageID) " +
+    "FROM UserConversationDAO uc " +
+    "WHERE uc.user.userID = :userID AND uc.unreadCount > 0"
+  )
+  List<UnreadCountDTO> findUnreadCountsForUser(@Param("userID") String userID);
+
+  @Modifying
+  @Query(
+    "UPDATE UserConversationDAO uc SET " +
+    "uc.unreadCount = CASE WHEN uc.user = :sender THEN 0 ELSE uc.unreadCount + 1 END, " +
+    "uc.lastReadMessageID = CASE WHEN uc.user = :sender THEN :messageID ELSE uc.lastReadMessageID END " +
+    "WHERE uc.conversation = :conversation"
+  )
+  int registerNewMessage(
+    @Param("conversation") ConversationDAO conversation,
+    @Param("sender") UserDAO sender,
+    @Param("messageID") String messageID
+  );
+
+  @Query(
+    value = "SELECT 1 FROM user_conversation " +
+    "WHERE conversation_id = :conversationID AND user_id = :userID FOR UPDATE",
+    nativeQuery = true
+  )
+  Integer lockForUser(
+    @Param("conversationID") String conversationID,
+    @Param("userID") String userID
+  );
+
+  @Modifying
+  @Query(
+    "UPDATE UserConversationDAO uc SET uc.unreadCount = 0, uc.lastReadMessageID = " +
+    "(SELECT c.lastMessage.messageID FROM ConversationDAO c WHERE c = :conversation) " +
+    "WHERE uc.conversation = :conversation AND uc.user.userID = :userID"
+  )
+  int markAsRead(
+    @Param("conversation") ConversationDAO conversation,
+    @Param("userID") String userID
+  );
 }
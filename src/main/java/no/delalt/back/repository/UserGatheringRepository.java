@@ -4,6 +4,7 @@ import no.delalt.back.model.dao.GatheringDAO;
 import no.delalt.back.model.dao.UserGatheringDAO;
 import no.delalt.back.model.id.UserGatheringID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,4 +16,17 @@ public interface UserGatheringRepository
     "SELECT COUNT(ug) FROM UserGatheringDAO ug WHERE ug.gathering = :gathering"
   )
   int getNumberOfAttendees(@Param("gathering") GatheringDAO gathering);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.user_gathering WHERE (user_id, gathering_id) IN (" +
+    "SELECT ug.user_id, ug.gathering_id FROM public.user_gathering ug " +
+    "JOIN public.gathering g ON g.gathering_id = ug.gathering_id " +
+    "WHERE g.community_id = :communityID LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteForCommunity(
+    @Param("communityID") String communityID,
+    @Param("limit") int limit
+  );
 }
@@ -0,0 +1,121 @@
+package no.delalt.back.repository;
+
+import no.delalt.back.model.dao.ItemDAO;
+import no.delalt.back.model.dao.UserItemFeedDAO;
+import no.delalt.back.model.id.UserItemFeedID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserItemFeedRepository
+  extends
+    JpaRepository<UserItemFeedDAO, UserItemFeedID>,
+    AdvisoryLockRepository<UserItemFeedDAO, UserItemFeedID> {
+  /**
+   * Finds a page of the feed of a user, newest first, as a range scan of the feed of the user.
+   * The feed rows of a deleted community are refreshed by the first phase of its purge,
+   * which removes its items from the community.
+   */
+  @Query(
+    "SELECT i " +
+    "FROM UserItemFeedDAO f " +
+    "JOIN ItemDAO i ON i.itemID = f.itemID " +
+    "JOIN FETCH i.user " +
+    "WHERE f.userID = :userID " +
+    "AND (:itemID IS NULL OR f.createdAt < :createdAt " +
+    "OR (f.createdAt = :createdAt AND f.itemID < :itemID)) " +
+    "ORDER BY f.createdAt DESC, f.itemID DESC"
+  )
+  List<ItemDAO> findFeedForUser(
+    @Param("userID") String userID,
+    @Param("createdAt") long createdAt,
+    @Param("itemID") String itemID,
+    Pageable pageable
+  );
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.user_item_feed WHERE item_id = :itemID",
+    nativeQuery = true
+  )
+  int deleteByItemID(@Param("itemID") String itemID);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "INSERT INTO public.user_item_feed (user_id, item_id, created_at) " +
+    "SELECT DISTINCT uc.user_id, i.item_id, i.created_at FROM public.item i " +
+    "JOIN public.community_item ci ON ci.item_id = i.item_id " +
+    "JOIN public.user_community uc ON uc.community_id = ci.community_id " +
+    "JOIN public.community c ON c.community_id = ci.community_id AND c.deleted_at IS NULL " +
+    "WHERE i.item_id = :itemID AND i.is_deleted = false AND uc.user_id <> i.user_id " +
+    "ON CONFLICT DO NOTHING",
+    nativeQuery = true
+  )
+  int insertForItem(@Param("itemID") String itemID);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.user_item_feed WHERE item_id IN (:itemIDs)",
+    nativeQuery = true
+  )
+  int deleteByItemIDIn(@Param("itemIDs") Collection<String> itemIDs);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "INSERT INTO public.user_item_feed (user_id, item_id, created_at) " +
+    "SELECT DISTINCT uc.user_id, i.item_id, i.created_at FROM public.item i " +
+    "JOIN public.community_item ci ON ci.item_id = i.item_id " +
+    "JOIN public.user_community uc ON uc.community_id = ci.community_id " +
+    "JOIN public.community c ON c.community_id = ci.community_id AND c.deleted_at IS NULL " +
+    "WHERE i.item_id IN (:itemIDs) AND i.is_deleted = false AND uc.user_id <> i.user_id " +
+    "ON CONFLICT DO NOTHING",
+    nativeQuery = true
+  )
+  int insertForItems(@Param("itemIDs") Collection<String> itemIDs);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "DELETE FROM public.user_item_feed f WHERE f.user_id = :userID OR " +
+    "f.item_id IN (SELECT i.item_id FROM public.item i WHERE i.user_id = :userID)",
+    nativeQuery = true
+  )
+  int deleteForUser(@Param("userID") String userID);
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "INSERT INTO public.user_item_feed (user_id, item_id, created_at) " +
+    "SELECT DISTINCT uc.user_id, i.item_id, i.created_at FROM public.item i " +
+    "JOIN public.community_item ci ON ci.item_id = i.item_id " +
+    "JOIN public.user_community uc ON uc.community_id = ci.community_id " +
+    "JOIN public.community c ON c.community_id = ci.community_id AND c.deleted_at IS NULL " +
+    "WHERE i.is_deleted = false AND uc.user_id <> i.user_id " +
+    "AND (uc.user_id = :userID OR i.user_id = :userID) " +
+    "ON CONFLICT DO NOTHING",
+    nativeQuery = true
+  )
+  int insertForUser(@Param("userID") String userID);
+
+  @Modifying(flushAutomatically = true)
+  @Query(value = "DELETE FROM public.user_item_feed", nativeQuery = true)
+  int deleteEverything();
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+    value = "INSERT INTO public.user_item_feed (user_id, item_id, created_at) " +
+    "SELECT DISTINCT uc.user_id, i.item_id, i.created_at FROM public.item i " +
+    "JOIN public.community_item ci ON ci.item_id = i.item_id " +
+    "JOIN public.user_community uc ON uc.community_id = ci.community_id " +
+    "JOIN public.community c ON c.community_id = ci.community_id AND c.deleted_at IS NULL " +
+    "WHERE i.is_deleted = false AND uc.user_id <> i.user_id " +
+    "ON CONFLICT DO NOTHING",
+    nativeQuery = true
+  )
+  int insertEverything();
+}
@@ -1,10 +1,21 @@
 package no.delalt.back.repository;
 
 import no.delalt.back.model.dao.UserDAO;
+import no.delalt.back.model.object.UserSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface UserRepository extends JpaRepository<UserDAO, String> {
   UserDAO findByEmail(String email);
+
+  @Query(
+    "SELECT new no.delalt.back.model.object.UserSnapshot(u.userID, u.coordinates, u.deletedAt) " +
+    "FROM UserDAO u WHERE u.userID = :userID"
+  )
+  Optional<UserSnapshot> findSnapshotByUserID(@Param("userID") String userID);
 }
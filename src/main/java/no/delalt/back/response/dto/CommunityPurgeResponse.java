@@ -0,0 +1,6 @@
+package no.delalt.back.response.dto;
+
+import no.delalt.back.model.dto.output.CommunityPurgeDTO;
+
+public record CommunityPurgeResponse(CommunityPurgeDTO payload) {
+}
@@ -0,0 +1,6 @@
+package no.delalt.back.response.dto;
+
+import no.delalt.back.model.dto.output.ItemAvailabilityDTO;
+
+public record ItemAvailabilityResponse(ItemAvailabilityDTO payload) {
+}
@@ -0,0 +1,11 @@
+package no.delalt.back.response.list;
+
+import no.delalt.back.model.dto.output.BorrowRequestDTO;
+
+import java.util.List;
+
+public record BorrowRequestInboxListResponse(
+  List<BorrowRequestDTO> payload,
+  String nextCursor
+) {
+}
@@ -0,0 +1,8 @@
+package no.delalt.back.response.list;
+
+import no.delalt.back.model.dto.output.ItemDTO;
+
+import java.util.List;
+
+public record NearbyItemListResponse(List<ItemDTO> payload, String nextCursor) {
+}
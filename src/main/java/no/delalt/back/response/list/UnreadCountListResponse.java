@@ -0,0 +1,8 @@
+package no.delalt.back.response.list;
+
+import no.delalt.back.model.dto.output.UnreadCountDTO;
+
+import java.util.List;
+
+public record UnreadCountListResponse(List<UnreadCountDTO> payload) {
+}
@@ -1,42 +1,58 @@
 package no.delalt.back.service;
 
+import no.delalt.back.cache.ItemAvailabilityCache;
 import no.delalt.back.model.dao.BorrowAgreementDAO;
 import no.delalt.back.model.dao.ItemDAO;
 import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.model.dto.input.RatingStatusDTO;
 import no.delalt.back.model.dto.output.BorrowAgreementDTO;
 import no.delalt.back.model.dto.output.BorrowDatesDTO;
+import no.delalt.back.model.dto.output.ItemAvailabilityDTO;
 import no.delalt.back.model.enums.BorrowAgreementStatusEnum;
+import no.delalt.back.model.object.BorrowPeriod;
+import no.delalt.back.model.object.ItemAvailability;
 import no.delalt.back.repository.BorrowAgreementRepository;
+import no.delalt.back.repository.BorrowRequestRepository;
 import no.delalt.back.service.save.RatingSaveService;
 import no.delalt.back.service.validation.ItemValidationService;
 import no.delalt.back.service.validation.UserValidationService;
-import no.delalt.back.util.SecurityUtil;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
 import java.util.List;
 
 @Service
 public class BorrowAgreementService {
+  public static final int MAX_AVAILABILITY_DAYS = 366; //366 Days, 1 YEAR
   private final BorrowAgreementRepository borrowRepository;
+  private final BorrowRequestRepository borrowRequestRepository;
+  private final ItemAvailabilityCache itemAvailabilityCache;
   private final UserValidationService userValidationService;
   private final ItemValidationService itemValidationService;
   private final RatingSaveService ratingSaveService;
+  private final CurrentUser currentUser;
 
   public BorrowAgreementService(
     BorrowAgreementRepository borrowRepository,
+    BorrowRequestRepository borrowRequestRepository,
+    ItemAvailabilityCache itemAvailabilityCache,
     UserValidationService userValidationService,
     ItemValidationService itemValidationService,
-    RatingSaveService ratingSaveService
+    RatingSaveService ratingSaveService,
+    CurrentUser currentUser
   ) {
     this.borrowRepository = borrowRepository;
+    this.borrowRequestRepository = borrowRequestRepository;
+    this.itemAvailabilityCache = itemAvailabilityCache;
     this.userValidationService = userValidationService;
     this.itemValidationService = itemValidationService;
     this.ratingSaveService = ratingSaveService;
+    this.currentUser = currentUser;
   }
 
   // -------------------- Controller Methods --------------------
@@ -53,6 +69,36 @@ public class BorrowAgreementService {
     return borrowRepository.findAllBorrowDatesForItem(itemDAO, LocalDate.now());
   }
 
+  /**
+   * Retrieves the availability calendar of an item for the next days, starting today.
+   * The busy days of the whole year are computed once and cached until the agreements or
+   * requests of the item change.
+   *
+   * @param  itemID           the ID of the item
+   * @param  days             the number of days of the calendar, at most MAX_AVAILABILITY_DAYS
+   * @param  includesPending  whether the days of pending requests count as busy
+   * @return                  the availability calendar of the item
+   */
+  @Transactional(readOnly = true)
+  public ItemAvailabilityDTO retrieveAvailabilityForItem(
+    String itemID,
+    int days,
+    boolean includesPending
+  ) {
+    ItemDAO itemDAO = itemValidationService.validateItemExistsAndReturn(itemID);
+    ItemAvailability itemAvailability = itemAvailabilityCache.get(
+      itemID,
+      includesPending,
+      () -> computeAvailability(itemDAO, includesPending)
+    );
+    return new ItemAvailabilityDTO(
+      itemID,
+      itemAvailability,
+      days,
+      includesPending
+    );
+  }
+
   /**
    * Retrieves a list of incomplete borrow agreements for the owner.
    *
@@ -60,9 +106,7 @@ public class BorrowAgreementService {
    */
   @Transactional(readOnly = true)
   public List<BorrowAgreementDTO> retrieveIncompleteBorrowsForOwner() {
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
     List<BorrowAgreementDAO> borrowDAOs = borrowRepository.findAllByOwnerAndIsCompleted(
       user,
       false
@@ -77,9 +121,7 @@ public class BorrowAgreementService {
    */
   @Transactional(readOnly = true)
   public List<BorrowAgreementDTO> retrieveIncompleteBorrowsForBorrower() {
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
     List<BorrowAgreementDAO> borrowDAOs = borrowRepository.findAllByBorrowerAndIsCompleted(
       user,
       false
@@ -94,9 +136,7 @@ public class BorrowAgreementService {
    */
   @Transactional(readOnly = true)
   public List<BorrowAgreementDTO> retrieveCompletedBorrowsForOwner() {
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
     List<BorrowAgreementDAO> borrowDAOs = borrowRepository.findAllByOwnerAndIsCompleted(
       user,
       true
@@ -111,9 +151,7 @@ public class BorrowAgreementService {
    */
   @Transactional(readOnly = true)
   public List<BorrowAgreementDTO> retrieveCompletedBorrowsForBorrower() {
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
     List<BorrowAgreementDAO> borrowDAOs = borrowRepository.findAllByBorrowerAndIsCompleted(
       user,
       true
@@ -219,12 +257,79 @@ public class BorrowAgreementService {
     borrowDAO.setIsCompleted(true);
 
     borrowRepository.save(borrowDAO);
+    itemAvailabilityCache.invalidate(borrowDAO.getItem().getItemID());
 
     ratingSaveService.saveRating(borrowDAO, ratingStatusDTO);
   }
 
   // -------------------- Helper Methods --------------------
 
+  /**
+   * Computes the busy days of an item for the next MAX_AVAILABILITY_DAYS days, starting today.
+   *
+   * @param  itemDAO          the item
+   * @param  includesPending  whether the days of pending requests count as busy
+   * @return                  the availability of the item
+   */
+  private ItemAvailability computeAvailability(
+    ItemDAO itemDAO,
+    boolean includesPending
+  ) {
+    LocalDate currentDate = LocalDate.now();
+    LocalDate lastDate = currentDate.plusDays(MAX_AVAILABILITY_DAYS - 1);
+    BitSet busyDays = new BitSet(MAX_AVAILABILITY_DAYS);
+
+    markBusyDays(
+      busyDays,
+      currentDate,
+      borrowRepository.findBorrowPeriodsForItem(
+        itemDAO.getItemID(),
+        currentDate,
+        lastDate
+      )
+    );
+    if (includesPending) {
+      markBusyDays(
+        busyDays,
+        currentDate,
+        borrowRequestRepository.findPendingPeriodsForItem(
+          itemDAO.getItemID(),
+          currentDate,
+          lastDate
+        )
+      );
+    }
+
+    return new ItemAvailability(currentDate, busyDays.toLongArray());
+  }
+
+  /**
+   * Marks the days of the given periods as busy, both ends included.
+   *
+   * @param  busyDays     the busy days, where bit 0 is the current date
+   * @param  currentDate  the current date
+   * @param  periods      the periods to mark
+   */
+  private static void markBusyDays(
+    BitSet busyDays,
+    LocalDate currentDate,
+    List<BorrowPeriod> periods
+  ) {
+    for (BorrowPeriod period : periods) {
+      long fromIndex = Math.max(
+        0,
+        ChronoUnit.DAYS.between(currentDate, period.getStartDate())
+      );
+      long toIndex = Math.min(
+        MAX_AVAILABILITY_DAYS,
+        ChronoUnit.DAYS.between(currentDate, period.getEndDate()) + 1
+      );
+      if (fromIndex < toIndex) {
+        busyDays.set((int) fromIndex, (int) toIndex);
+      }
+    }
+  }
+
   /**
    * Validates that there are no ongoing borrows for a given item.
    *
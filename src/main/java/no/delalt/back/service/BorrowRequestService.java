@@ -1,5 +1,6 @@
 package no.delalt.back.service;
 
+import no.delalt.back.cache.ItemAvailabilityCache;
 import no.delalt.back.model.dao.BorrowAgreementDAO;
 import no.delalt.back.model.dao.BorrowRequestDAO;
 import no.delalt.back.model.dao.ItemDAO;
@@ -7,9 +8,12 @@ import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.model.dto.input.BorrowRequestCreationDTO;
 import no.delalt.back.model.dto.output.BorrowRequestDTO;
 import no.delalt.back.model.enums.BorrowAgreementStatusEnum;
+import no.delalt.back.model.enums.BorrowRequestRoleEnum;
 import no.delalt.back.model.enums.BorrowRequestStatusEnum;
 import no.delalt.back.model.object.BorrowDates;
+import no.delalt.back.model.object.BorrowRequestCursor;
 import no.delalt.back.repository.BorrowRequestRepository;
+import no.delalt.back.response.list.BorrowRequestInboxListResponse;
 import no.delalt.back.service.save.BorrowAgreementSaveService;
 import no.delalt.back.service.validation.BorrowAgreementValidationService;
 import no.delalt.back.service.validation.CommunityItemValidationService;
@@ -18,19 +22,31 @@ import no.delalt.back.service.validation.UserCommunityValidationService;
 import no.delalt.back.service.validation.UserValidationService;
 import no.delalt.back.util.NanoIdGenerator;
 import no.delalt.back.util.SanitizationUtil;
-import no.delalt.back.util.SecurityUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class BorrowRequestService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    BorrowRequestService.class
+  );
   private final BorrowAgreementValidationService borrowAgreementValidationService;
   private final BorrowAgreementSaveService borrowAgreementSaveService;
 
@@ -39,6 +55,10 @@ public class BorrowRequestService {
   private final UserValidationService userValidationService;
   private final UserCommunityValidationService userCommunityValidationService;
   private final CommunityItemValidationService communityItemValidationService;
+  private final CurrentUser currentUser;
+  private final ItemAvailabilityCache itemAvailabilityCache;
+  private final TransactionTemplate transactionTemplate;
+  private final int maxAcceptAttempts;
 
   private static final short MINIMUM_TIME = 1; //1 DAY
   private static final short MAXIMUM_TIME = 366; //366 Days, 1 YEAR
@@ -54,7 +74,11 @@ public class BorrowRequestService {
     BorrowRequestRepository borrowRequestRepository,
     BorrowAgreementValidationService borrowAgreementValidationService,
     BorrowAgreementSaveService borrowAgreementSaveService,
-    CommunityItemValidationService communityItemValidationService
+    CommunityItemValidationService communityItemValidationService,
+    CurrentUser currentUser,
+    ItemAvailabilityCache itemAvailabilityCache,
+    TransactionTemplate transactionTemplate,
+    @Value("${borrow.accept.max-attempts:3}") int maxAcceptAttempts
   ) {
     this.itemValidationService = itemValidationService;
     this.userValidationService = userValidationService;
@@ -63,6 +87,10 @@ public class BorrowRequestService {
     this.borrowAgreementValidationService = borrowAgreementValidationService;
     this.borrowAgreementSaveService = borrowAgreementSaveService;
     this.communityItemValidationService = communityItemValidationService;
+    this.currentUser = currentUser;
+    this.itemAvailabilityCache = itemAvailabilityCache;
+    this.transactionTemplate = transactionTemplate;
+    this.maxAcceptAttempts = maxAcceptAttempts;
   }
 
   // -------------------- Controller Methods --------------------
@@ -106,9 +134,7 @@ public class BorrowRequestService {
       requestDates.endDate()
     );
 
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO userDAO = currentUser.getUserDAO();
 
     validateNoRequestsForItemFromUser(itemDAO, userDAO);
 
@@ -129,6 +155,7 @@ public class BorrowRequestService {
     borrowRequestDAO.setIsProcessed(false);
 
     borrowRequestRepository.save(borrowRequestDAO);
+    itemAvailabilityCache.invalidate(itemDAO.getItemID());
   }
 
   /**
@@ -138,14 +165,14 @@ public class BorrowRequestService {
    */
   @Transactional(readOnly = true)
   public List<BorrowRequestDTO> retrievePendingRequestsForOwner() {
-    UserDAO currentUser = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
-    List<BorrowRequestDAO> borrowRequestDAOs = borrowRequestRepository.findAllByOwnerAndIsProcessed(
-      currentUser,
-      false
+    return toBorrowRequestDTOs(
+      findInbox(
+        BorrowRequestRoleEnum.OWNER,
+        EnumSet.of(BorrowRequestStatusEnum.PENDING),
+        new BorrowRequestCursor(0, null),
+        Pageable.unpaged()
+      )
     );
-    return toBorrowRequestDTOs(borrowRequestDAOs);
   }
 
   /**
@@ -155,15 +182,14 @@ public class BorrowRequestService {
    */
   @Transactional(readOnly = true)
   public List<BorrowRequestDTO> retrievePendingRequestsForRequester() {
-    UserDAO currentUser = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
-    List<BorrowRequestDAO> borrowRequestDAOs = borrowRequestRepository.findAllByRequesterAndIsProcessed(
-      currentUser,
-      false
+    return toBorrowRequestDTOs(
+      findInbox(
+        BorrowRequestRoleEnum.REQUESTER,
+        EnumSet.of(BorrowRequestStatusEnum.PENDING),
+        new BorrowRequestCursor(0, null),
+        Pageable.unpaged()
+      )
     );
-
-    return toBorrowRequestDTOs(borrowRequestDAOs);
   }
 
   /**
@@ -173,15 +199,14 @@ public class BorrowRequestService {
    */
   @Transactional(readOnly = true)
   public List<BorrowRequestDTO> retrieveCanceledRequestsForOwner() {
-    UserDAO currentUser = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
-    List<BorrowRequestDAO> borrowRequestDAOs = borrowRequestRepository.findAllByOwnerAndIsProcessedAndStatus(
-      currentUser,
-      true,
-      BorrowRequestStatusEnum.CANCELED.getValue()
+    return toBorrowRequestDTOs(
+      findInbox(
+        BorrowRequestRoleEnum.OWNER,
+        EnumSet.of(BorrowRequestStatusEnum.CANCELED),
+        new BorrowRequestCursor(0, null),
+        Pageable.unpaged()
+      )
     );
-    return toBorrowRequestDTOs(borrowRequestDAOs);
   }
 
   /**
@@ -191,15 +216,14 @@ public class BorrowRequestService {
    */
   @Transactional(readOnly = true)
   public List<BorrowRequestDTO> retrieveCanceledRequestsForRequester() {
-    UserDAO currentUser = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
-    List<BorrowRequestDAO> borrowRequestDAOs = borrowRequestRepository.findAllByRequesterAndIsProcessedAndStatus(
-      currentUser,
-      true,
-      BorrowRequestStatusEnum.CANCELED.getValue()
+    return toBorrowRequestDTOs(
+      findInbox(
+        BorrowRequestRoleEnum.REQUESTER,
+        EnumSet.of(BorrowRequestStatusEnum.CANCELED),
+        new BorrowRequestCursor(0, null),
+        Pageable.unpaged()
+      )
     );
-    return toBorrowRequestDTOs(borrowRequestDAOs);
   }
 
   /**
@@ -209,15 +233,14 @@ public class BorrowRequestService {
    */
   @Transactional(readOnly = true)
   public List<BorrowRequestDTO> retrieveDeclinedRequestsForOwner() {
-    UserDAO currentUser = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
-    List<BorrowRequestDAO> borrowRequestDAOs = borrowRequestRepository.findAllByOwnerAndIsProcessedAndStatus(
-      currentUser,
-      true,
-      BorrowRequestStatusEnum.REJECTED.getValue()
+    return toBorrowRequestDTOs(
+      findInbox(
+        BorrowRequestRoleEnum.OWNER,
+        EnumSet.of(BorrowRequestStatusEnum.REJECTED),
+        new BorrowRequestCursor(0, null),
+        Pageable.unpaged()
+      )
     );
-    return toBorrowRequestDTOs(borrowRequestDAOs);
   }
 
   /**
@@ -227,24 +250,136 @@ public class BorrowRequestService {
    */
   @Transactional(readOnly = true)
   public List<BorrowRequestDTO> retrieveDeclinedRequestsForRequester() {
-    UserDAO currentUser = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
+    return toBorrowRequestDTOs(
+      findInbox(
+        BorrowRequestRoleEnum.REQUESTER,
+        EnumSet.of(BorrowRequestStatusEnum.REJECTED),
+        new BorrowRequestCursor(0, null),
+        Pageable.unpaged()
+      )
     );
-    List<BorrowRequestDAO> borrowRequestDAOs = borrowRequestRepository.findAllByRequesterAndIsProcessedAndStatus(
-      currentUser,
-      true,
-      BorrowRequestStatusEnum.REJECTED.getValue()
+  }
+
+  /**
+   * Retrieves a page of the borrow requests of the authenticated user in the given role,
+   * newest first. To get the next page, pass the nextCursor of the response as cursor.
+   *
+   * @param  role      whether to retrieve the requests the user owns or has made
+   * @param  statuses  the statuses of the requests to retrieve
+   * @param  cursor    the cursor returned with the previous page, or null for the first page
+   * @param  limit     the maximum number of requests to return
+   * @return           the requests and the cursor of the next page, which is null on the last page
+   * @throws ResponseStatusException if the cursor is invalid
+   */
+  @Transactional(readOnly = true)
+  public BorrowRequestInboxListResponse retrieveInbox(
+    BorrowRequestRoleEnum role,
+    Set<BorrowRequestStatusEnum> statuses,
+    String cursor,
+    int limit
+  )
+    throws ResponseStatusException {
+    BorrowRequestCursor after = cursor != null
+      ? BorrowRequestCursor.decode(cursor)
+      : new BorrowRequestCursor(0, null);
+
+    // One extra request tells if there is a next page
+    List<BorrowRequestDAO> borrowRequestDAOs = findInbox(
+      role,
+      statuses,
+      after,
+      PageRequest.ofSize(limit + 1)
+    );
+
+    String nextCursor = null;
+    if (borrowRequestDAOs.size() > limit) {
+      borrowRequestDAOs = borrowRequestDAOs.subList(0, limit);
+      BorrowRequestDAO last = borrowRequestDAOs.get(limit - 1);
+      nextCursor =
+        BorrowRequestCursor.encode(
+          last.getCreatedAt(),
+          last.getBorrowRequestID()
+        );
+    }
+
+    return new BorrowRequestInboxListResponse(
+      toBorrowRequestDTOs(borrowRequestDAOs),
+      nextCursor
     );
-    return toBorrowRequestDTOs(borrowRequestDAOs);
   }
 
   /**
    * Accepts a borrow request.
+   * No rows are locked while the request is accepted. A concurrent change of the request is
+   * detected by its version when the transaction commits, and the accept is retried in a new
+   * transaction, where it sees the request as changed by the other transaction.
    *
    * @param requestID   The ID of the request to accept.
+   * @throws ResponseStatusException if the request keeps being changed concurrently
+   */
+  public void acceptBorrowRequest(String requestID)
+    throws ResponseStatusException {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        transactionTemplate.executeWithoutResult(
+          status -> acceptBorrowRequestOnce(requestID)
+        );
+        return;
+      } catch (OptimisticLockingFailureException e) {
+        if (attempt >= maxAcceptAttempts) {
+          LOGGER.warn(
+            "Accepting borrow request " +
+            requestID +
+            " failed after " +
+            attempt +
+            " attempts: " +
+            e.getMessage()
+          );
+          throw new ResponseStatusException(
+            HttpStatus.CONFLICT,
+            "The request was changed while it was accepted."
+          );
+        }
+      }
+    }
+  }
+
+  /**
+   * Declines a borrow request.
+   *
+   * @param requestID   The ID of the request to decline.
    */
   @Transactional
-  public void acceptBorrowRequest(String requestID) {
+  public void declineBorrowRequest(String requestID) {
+    BorrowRequestDAO borrowRequestDAO = validateRequestAndReturn(requestID);
+
+    userValidationService.validateAuthenticatedUserIsSame(
+      borrowRequestDAO.getOwner().getUserID()
+    );
+
+    if (
+      borrowRequestDAO.getStatus() != BorrowRequestStatusEnum.PENDING.getValue()
+    ) {
+      throw new ResponseStatusException(
+        HttpStatus.CONFLICT,
+        "Request cannot be declined, because it isn't pending."
+      );
+    }
+
+    borrowRequestDAO.setStatus(BorrowRequestStatusEnum.REJECTED.getValue());
+    borrowRequestDAO.setIsProcessed(true);
+    borrowRequestRepository.save(borrowRequestDAO);
+    itemAvailabilityCache.invalidate(borrowRequestDAO.getItem().getItemID());
+  }
+
+  // -------------------- Helper Methods --------------------
+
+  /**
+   * Accepts a borrow request in the current transaction.
+   *
+   * @param requestID   The ID of the request to accept.
+   */
+  private void acceptBorrowRequestOnce(String requestID) {
     BorrowRequestDAO borrowRequestDAO = validateRequestAndReturn(requestID);
 
     userValidationService.validateAuthenticatedUserIsSame(
@@ -310,7 +445,7 @@ public class BorrowRequestService {
     borrowRequestRepository.save(borrowRequestDAO);
 
     List<BorrowRequestDAO> borrowRequestDAOs = borrowRequestRepository.findPendingRequestsByItemInTimeframe(
-      borrowRequestDAO.getItem(),
+      borrowRequestDAO.getItem().getItemID(),
       borrowRequestDAO.getStartDate(),
       borrowRequestDAO.getEndDate()
     );
@@ -324,34 +459,52 @@ public class BorrowRequestService {
   }
 
   /**
-   * Declines a borrow request.
+   * Finds the requests of the authenticated user in the given role with the given statuses,
+   * newest first, after the cursor. All associations of the requests are fetched in the same query.
    *
-   * @param requestID   The ID of the request to decline.
+   * @param  role      whether to find the requests the user owns or has made
+   * @param  statuses  the statuses of the requests to find
+   * @param  after     the cursor of the last request of the previous page
+   * @param  pageable  the size of the page
+   * @return           the requests of the page
    */
-  @Transactional
-  public void declineBorrowRequest(String requestID) {
-    BorrowRequestDAO borrowRequestDAO = validateRequestAndReturn(requestID);
-
-    userValidationService.validateAuthenticatedUserIsSame(
-      borrowRequestDAO.getOwner().getUserID()
-    );
-
-    if (
-      borrowRequestDAO.getStatus() != BorrowRequestStatusEnum.PENDING.getValue()
-    ) {
-      throw new ResponseStatusException(
-        HttpStatus.CONFLICT,
-        "Request cannot be declined, because it isn't pending."
+  private List<BorrowRequestDAO> findInbox(
+    BorrowRequestRoleEnum role,
+    Set<BorrowRequestStatusEnum> statuses,
+    BorrowRequestCursor after,
+    Pageable pageable
+  ) {
+    String userID = currentUser.getSnapshot().userID();
+    // Only pending requests are unprocessed, so the processed state follows from the statuses
+    Set<Boolean> processedStates = statuses
+      .stream()
+      .map(status -> status != BorrowRequestStatusEnum.PENDING)
+      .collect(Collectors.toSet());
+    List<Short> statusValues = statuses
+      .stream()
+      .map(BorrowRequestStatusEnum::getValue)
+      .toList();
+
+    return switch (role) {
+      case OWNER -> borrowRequestRepository.findInboxForOwner(
+        userID,
+        processedStates,
+        statusValues,
+        after.createdAt(),
+        after.borrowRequestID(),
+        pageable
       );
-    }
-
-    borrowRequestDAO.setStatus(BorrowRequestStatusEnum.REJECTED.getValue());
-    borrowRequestDAO.setIsProcessed(true);
-    borrowRequestRepository.save(borrowRequestDAO);
+      case REQUESTER -> borrowRequestRepository.findInboxForRequester(
+        userID,
+        processedStates,
+        statusValues,
+        after.createdAt(),
+        after.borrowRequestID(),
+        pageable
+      );
+    };
   }
 
-  // -------------------- Helper Methods --------------------
-
   /**
    * Converts a list of BorrowRequestDAO objects to a list of BorrowRequestDTO objects.
    *
@@ -8,8 +8,10 @@ import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.model.dto.input.ConversationCreationDTO;
 import no.delalt.back.model.dto.input.NewMessageDTO;
 import no.delalt.back.model.dto.output.ChatMessageDTO;
+import no.delalt.back.model.dto.output.ChatMessageEventDTO;
 import no.delalt.back.model.dto.output.ConversationDTO;
-import no.delalt.back.model.dto.output.UserDTO;
+import no.delalt.back.model.dto.output.UnreadCountDTO;
+import no.delalt.back.model.object.ChatMessageEvent;
 import no.delalt.back.model.object.UserPair;
 import no.delalt.back.repository.ChatMessageRepository;
 import no.delalt.back.repository.ConversationRepository;
@@ -20,6 +22,7 @@ import no.delalt.back.service.validation.UserValidationService;
 import no.delalt.back.util.NanoIdGenerator;
 import no.delalt.back.util.SanitizationUtil;
 import no.delalt.back.util.SecurityUtil;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -29,7 +32,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -40,6 +42,8 @@ public class ChatService {
   private final UserValidationService userValidationService;
   private final UserCommunityValidationService userCommunityValidationService;
   private final CommunityRequestValidatonService communityRequestValidatonService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final CurrentUser currentUser;
 
   public ChatService(
     UserConversationRepository userConversationRepository,
@@ -47,7 +51,9 @@ public class ChatService {
     ChatMessageRepository chatMessageRepository,
     UserValidationService userValidationService,
     UserCommunityValidationService userCommunityValidationService,
-    CommunityRequestValidatonService communityRequestValidatonService
+    CommunityRequestValidatonService communityRequestValidatonService,
+    ApplicationEventPublisher eventPublisher,
+    CurrentUser currentUser
   ) {
     this.userConversationRepository = userConversationRepository;
     this.conversationRepository = conversationRepository;
@@ -55,6 +61,8 @@ public class ChatService {
     this.userValidationService = userValidationService;
     this.userCommunityValidationService = userCommunityValidationService;
     this.communityRequestValidatonService = communityRequestValidatonService;
+    this.eventPublisher = eventPublisher;
+    this.currentUser = currentUser;
   }
 
   // -------------------- Controller Methods --------------------
@@ -150,9 +158,7 @@ public class ChatService {
   ) {
     String currentAccountID = SecurityUtil.getAuthenticatedAccountID();
 
-    UserDAO senderUserDAO = userValidationService.validateUserExistsAndReturn(
-      currentAccountID
-    );
+    UserDAO senderUserDAO = currentUser.getUserDAO();
 
     ConversationDAO conversationDAO = validateConversationExistsAndReturn(
       conversationID
@@ -164,15 +170,109 @@ public class ChatService {
   }
 
   /**
-   * Handles the retrieval of all conversations for a given user.
+   * Handles the retrieval of the conversations of the current user, newest activity first.
+   * Conversations without messages are not included.
    *
+   * @param  before  the ID of the latest message of the last conversation the client has,
+   *                 or null for the first page
+   * @param  limit   the maximum number of conversations to return, or null for all of them
    * @return         a list of ConversationDTO objects representing the conversations
    */
   @Transactional(readOnly = true)
-  public List<ConversationDTO> handleGetAllConversations() {
+  public List<ConversationDTO> handleGetAllConversations(
+    String before,
+    Integer limit
+  ) {
+    String userID = currentUser.getSnapshot().userID();
+    Pageable pageable = limit == null
+      ? Pageable.unpaged()
+      : PageRequest.ofSize(limit);
+    return getConversationsForUser(userID, before, pageable);
+  }
+
+  /**
+   * Retrieves the messages of all conversations of a user sent after a given message, oldest first.
+   * Used to replay the messages a chat stream missed while it was disconnected.
+   *
+   * @param  userID  the ID of the user
+   * @param  after   the ID of the last message the stream received
+   * @param  limit   the maximum number of messages to return
+   * @return         the events of the missed messages, oldest first
+   */
+  @Transactional(readOnly = true)
+  public List<ChatMessageEventDTO> getMessageEventsAfter(
+    String userID,
+    String after,
+    int limit
+  ) {
+    return chatMessageRepository
+      .findForUserAfter(userID, after, PageRequest.ofSize(limit))
+      .stream()
+      .map(
+        chatMessageDAO ->
+          new ChatMessageEventDTO(
+            chatMessageDAO.getConversation().getConversationID(),
+            new ChatMessageDTO(chatMessageDAO)
+          )
+      )
+      .toList();
+  }
+
+  /**
+   * Handles the retrieval of the chat messages sent before a given message.
+   *
+   * @param  conversationID  the ID of the conversation
+   * @param  before          the ID of the oldest message the client has, or null for the latest messages
+   * @param  limit           the maximum number of messages to return
+   * @return                 a list of ChatMessageDTO objects, newest first
+   */
+  @Transactional(readOnly = true)
+  public List<ChatMessageDTO> handleGetMessagesBefore(
+    String conversationID,
+    String before,
+    int limit
+  ) {
+    ConversationDAO conversationDAO = validateConversationExistsAndReturn(
+      conversationID
+    );
+    validateUserIsInConversation(
+      SecurityUtil.getAuthenticatedAccountID(),
+      conversationDAO
+    );
+    return getMessagesBefore(conversationDAO, before, limit);
+  }
+
+  /**
+   * Handles marking all messages in a conversation as read for the current user.
+   * The membership row is locked before the last message is read, so a message sent
+   * concurrently is either committed and marked as read, or counted as unread after
+   * this transaction commits. It is never counted and then reset without being read.
+   *
+   * @param  conversationID  the ID of the conversation
+   */
+  @Transactional
+  public void handleMarkAsRead(String conversationID) {
     String userID = SecurityUtil.getAuthenticatedAccountID();
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(userID);
-    return getAllConversationsForUser(userDAO);
+    ConversationDAO conversationDAO = validateConversationExistsAndReturn(
+      conversationID
+    );
+    validateUserIsInConversation(userID, conversationDAO);
+
+    userConversationRepository.lockForUser(conversationID, userID);
+    userConversationRepository.markAsRead(conversationDAO, userID);
+  }
+
+  /**
+   * Handles the retrieval of the unread message counts of the current user.
+   * The counts are kept up to date when messages are sent, so no messages are read.
+   *
+   * @return  a list of UnreadCountDTO objects for the conversations with unread messages
+   */
+  @Transactional(readOnly = true)
+  public List<UnreadCountDTO> handleGetUnreadCounts() {
+    return userConversationRepository.findUnreadCountsForUser(
+      SecurityUtil.getAuthenticatedAccountID()
+    );
   }
 
   /**
@@ -313,6 +413,35 @@ public class ChatService {
     return chatMessageDAOs.stream().map(ChatMessageDTO::new).toList();
   }
 
+  /**
+   * Returns the messages in the conversation sent before the given message, newest first.
+   * Message IDs are monotonic ULIDs, so ordering by ID follows the order messages were sent
+   * and the page is found through the conversation and message ID index instead of an offset.
+   *
+   * @param  conversation  the ConversationDAO object
+   * @param  before        the ID of the message to start before, or null for the latest messages
+   * @param  limit         the maximum number of messages to return
+   * @return               a list of ChatMessageDTO objects
+   */
+  private List<ChatMessageDTO> getMessagesBefore(
+    ConversationDAO conversation,
+    String before,
+    int limit
+  ) {
+    Pageable pageable = PageRequest.ofSize(limit);
+    List<ChatMessageDAO> chatMessageDAOs = before == null
+      ? chatMessageRepository.findByConversationOrderByMessageIDDesc(
+        conversation,
+        pageable
+      )
+      : chatMessageRepository.findByConversationAndMessageIDLessThanOrderByMessageIDDesc(
+        conversation,
+        before,
+        pageable
+      );
+    return chatMessageDAOs.stream().map(ChatMessageDTO::new).toList();
+  }
+
   /**
    * Returns the ID of the conversation between two users.
    *
@@ -334,39 +463,27 @@ public class ChatService {
   }
 
   /**
-   * Returns a list of ConversationDTO objects representing all conversations for a given user.
+   * Returns the conversations of a user, ordered by their latest message, newest first.
+   * The conversation, the other user and the latest message are loaded in one query.
+   * Message IDs are monotonic ULIDs, so the ID of the latest message doubles as the
+   * keyset cursor for the next page.
    *
-   * @param  user  the UserDAO object
-   * @return       a list of ConversationDTO objects
+   * @param  userID    the ID of the user
+   * @param  before    the ID of the latest message of the last conversation the client has,
+   *                   or null for the first page
+   * @param  pageable  the page size, or unpaged for all conversations
+   * @return           a list of ConversationDTO objects
    */
-  private List<ConversationDTO> getAllConversationsForUser(UserDAO user) {
-    List<UserConversationDAO> userConversations = userConversationRepository.findByUser(
-      user
+  private List<ConversationDTO> getConversationsForUser(
+    String userID,
+    String before,
+    Pageable pageable
+  ) {
+    return userConversationRepository.findInboxForUser(
+      userID,
+      before,
+      pageable
     );
-    if (userConversations.isEmpty()) {
-      return Collections.emptyList();
-    }
-    return userConversations
-      .stream()
-      .map(
-        userConversation -> {
-          ConversationDAO conversation = userConversation.getConversation();
-
-          UserDAO otherUser = conversation
-              .getUser1()
-              .getUserID()
-              .equals(user.getUserID())
-            ? conversation.getUser2()
-            : conversation.getUser1();
-
-          return new ConversationDTO(
-            conversation.getConversationID(),
-            new ChatMessageDTO(conversation.getLastMessage()),
-            new UserDTO(otherUser)
-          );
-        }
-      )
-      .toList();
   }
 
   /**
@@ -405,6 +522,9 @@ public class ChatService {
 
   /**
    * Creates a new message in a conversation.
+   * The unread count of the other participant is incremented, while the message is
+   * marked as read for the sender. The participants are notified through their open
+   * chat streams once the message is committed.
    *
    * @param  sender          the UserDAO object representing the sender
    * @param  conversationDAO the ConversationDAO object
@@ -437,6 +557,25 @@ public class ChatService {
       conversationRepository.save(conversationDAO);
     }
 
+    userConversationRepository.registerNewMessage(
+      conversationDAO,
+      sender,
+      chatMessageDAO.getMessageID()
+    );
+
+    eventPublisher.publishEvent(
+      new ChatMessageEvent(
+        List.of(
+          conversationDAO.getUser1().getUserID(),
+          conversationDAO.getUser2().getUserID()
+        ),
+        new ChatMessageEventDTO(
+          conversationDAO.getConversationID(),
+          new ChatMessageDTO(chatMessageDAO)
+        )
+      )
+    );
+
     return chatMessageDAO.getMessageID();
   }
 
@@ -472,15 +611,27 @@ public class ChatService {
     UserDAO user2DAO;
 
     if (firstUserID.compareTo(secondUserID) > 0) {
-      user1DAO = userValidationService.validateUserExistsAndReturn(firstUserID);
-      user2DAO =
-        userValidationService.validateUserExistsAndReturn(secondUserID);
+      user1DAO = resolveUser(firstUserID);
+      user2DAO = resolveUser(secondUserID);
     } else {
-      user1DAO =
-        userValidationService.validateUserExistsAndReturn(secondUserID);
-      user2DAO = userValidationService.validateUserExistsAndReturn(firstUserID);
+      user1DAO = resolveUser(secondUserID);
+      user2DAO = resolveUser(firstUserID);
     }
 
     return new UserPair(user1DAO, user2DAO);
   }
+
+  /**
+   * Resolves a user, through the current user when it is the authenticated user.
+   *
+   * @param  userID  the ID of the user
+   * @return         the UserDAO of the user
+   * @throws ResponseStatusException if the user does not exist
+   */
+  private UserDAO resolveUser(String userID) throws ResponseStatusException {
+    if (userID.equals(currentUser.getUserID())) {
+      return currentUser.getUserDAO();
+    }
+    return userValidationService.validateUserExistsAndReturn(userID);
+  }
 }
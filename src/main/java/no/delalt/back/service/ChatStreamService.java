@@ -0,0 +1,339 @@
+package no.delalt.back.service;
+
+import jakarta.annotation.PreDestroy;
+import no.delalt.back.model.dto.output.ChatMessageEventDTO;
+import no.delalt.back.model.object.ChatMessageEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class ChatStreamService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    ChatStreamService.class
+  );
+  private static final String MESSAGE_EVENT = "message";
+  private static final String RESYNC_EVENT = "resync";
+  private static final int MAX_PENDING_EVENTS = 100;
+  private static final int MAX_REPLAYED_MESSAGES = 500;
+  private final ChatService chatService;
+  private final CurrentUser currentUser;
+  private final Map<String, Deque<ChatStream>> streams = new ConcurrentHashMap<>();
+  private final AtomicInteger connectionCount = new AtomicInteger();
+  private final ExecutorService senderExecutor = Executors.newVirtualThreadPerTaskExecutor();
+  private final int maxConnections;
+  private final int maxConnectionsPerUser;
+  private final long timeoutInMillis;
+
+  public ChatStreamService(
+    ChatService chatService,
+    CurrentUser currentUser,
+    @Value("${chat.stream.max-connections:10000}") int maxConnections,
+    @Value("${chat.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+    @Value("${chat.stream.timeout:PT30M}") Duration timeout
+  ) {
+    this.chatService = chatService;
+    this.currentUser = currentUser;
+    this.maxConnections = maxConnections;
+    this.maxConnectionsPerUser = maxConnectionsPerUser;
+    this.timeoutInMillis = timeout.toMillis();
+  }
+
+  /**
+   * Opens a stream of chat events for the current user.
+   * The oldest stream of the user is closed when the user has too many open streams.
+   * A client reconnecting with the ID of the last event it received is first sent the
+   * messages it missed, or a resync event telling it to reload its conversations if it
+   * missed too many of them.
+   *
+   * @param  lastEventID  the ID of the last message the client received, or null
+   * @return              the emitter sending events to the user
+   * @throws ResponseStatusException if the user is deleted, or the server has no room for more streams
+   */
+  public SseEmitter subscribe(String lastEventID)
+    throws ResponseStatusException {
+    String userID = currentUser.getSnapshot().userID();
+    if (connectionCount.incrementAndGet() > maxConnections) {
+      connectionCount.decrementAndGet();
+      throw new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "Too many open chat streams"
+      );
+    }
+
+    SseEmitter emitter = new SseEmitter(timeoutInMillis);
+    ChatStream stream = new ChatStream(emitter);
+    // New messages are only queued until the missed messages have been sent
+    stream.sending.set(lastEventID != null);
+    Deque<ChatStream> userStreams = streams.compute(
+      userID,
+      (key, value) -> {
+        Deque<ChatStream> deque = value != null
+          ? value
+          : new ConcurrentLinkedDeque<>();
+        deque.addLast(stream);
+        return deque;
+      }
+    );
+
+    emitter.onCompletion(() -> remove(userID, stream));
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(error -> emitter.complete());
+
+    while (userStreams.size() > maxConnectionsPerUser) {
+      ChatStream oldest = userStreams.pollFirst();
+      if (oldest != null) {
+        oldest.emitter.complete();
+      }
+    }
+
+    if (lastEventID != null) {
+      replay(userID, lastEventID, stream);
+    }
+    return emitter;
+  }
+
+  /**
+   * Sends a new chat message to the open streams of its recipients once the
+   * message has been committed. Every stream sends its events in the order they are queued.
+   *
+   * @param  event  the event describing the new message
+   *
+   * @TransactionalEventListener
+   */
+  @TransactionalEventListener
+  public void onChatMessage(ChatMessageEvent event) {
+    for (String recipientID : event.recipientIDs()) {
+      Deque<ChatStream> userStreams = streams.get(recipientID);
+      if (userStreams == null) {
+        continue;
+      }
+      for (ChatStream stream : userStreams) {
+        enqueue(
+          stream,
+          event.payload().message().ID(),
+          messageEvent(event.payload())
+        );
+      }
+    }
+  }
+
+  /**
+   * Sends a comment to all open streams, so that proxies keep idle streams open
+   * and closed connections are detected.
+   *
+   * @Scheduled(fixedDelayString = "${chat.stream.heartbeat-interval:PT25S}")
+   */
+  @Scheduled(fixedDelayString = "${chat.stream.heartbeat-interval:PT25S}")
+  public void sendHeartbeats() {
+    for (Deque<ChatStream> userStreams : streams.values()) {
+      for (ChatStream stream : userStreams) {
+        enqueue(stream, null, SseEmitter.event().comment("heartbeat"));
+      }
+    }
+  }
+
+  /**
+   * Closes all open streams when the application stops.
+   */
+  @PreDestroy
+  public void shutdown() {
+    streams
+      .values()
+      .forEach(
+        userStreams -> userStreams.forEach(stream -> stream.emitter.complete())
+      );
+    senderExecutor.shutdownNow();
+  }
+
+  /**
+   * Loads the messages a reconnecting stream missed, and starts sending them ahead of the
+   * new messages queued on the stream in the meantime. The stream is registered before the
+   * messages are loaded, so no message falls between the two, and queued messages that
+   * were also loaded are skipped.
+   *
+   * @param  userID       the ID of the user owning the stream
+   * @param  lastEventID  the ID of the last message the client received
+   * @param  stream       the stream, whose sender is held back until the replay starts
+   */
+  private void replay(String userID, String lastEventID, ChatStream stream) {
+    List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+    try {
+      List<ChatMessageEventDTO> missed = chatService.getMessageEventsAfter(
+        userID,
+        lastEventID,
+        MAX_REPLAYED_MESSAGES + 1
+      );
+      if (missed.size() > MAX_REPLAYED_MESSAGES) {
+        events.add(SseEmitter.event().name(RESYNC_EVENT).data(""));
+      } else if (!missed.isEmpty()) {
+        missed.forEach(payload -> events.add(messageEvent(payload)));
+        stream.replayedUpTo = missed.get(missed.size() - 1).message().ID();
+      }
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to replay missed chat messages", e);
+      events.add(SseEmitter.event().name(RESYNC_EVENT).data(""));
+    }
+    senderExecutor.execute(
+      () -> {
+        events.forEach(event -> send(stream.emitter, event));
+        drain(stream);
+      }
+    );
+  }
+
+  /**
+   * Queues an event on a stream, and starts sending the queued events of the stream
+   * unless they are being sent already. A stream whose client does not keep up with
+   * its events is closed, and the client reconnects from the last event it received,
+   * which replays the messages that were dropped.
+   *
+   * @param  stream     the stream to send the event to
+   * @param  messageID  the ID of the message the event carries, or null
+   * @param  event      the event to send
+   */
+  private void enqueue(
+    ChatStream stream,
+    String messageID,
+    SseEmitter.SseEventBuilder event
+  ) {
+    if (stream.pending.size() >= MAX_PENDING_EVENTS) {
+      LOGGER.debug("Closing chat stream: too many pending events");
+      stream.emitter.complete();
+      return;
+    }
+    stream.pending.add(new PendingEvent(messageID, event));
+    if (stream.sending.compareAndSet(false, true)) {
+      senderExecutor.execute(() -> drain(stream));
+    }
+  }
+
+  /**
+   * Sends the queued events of a stream one at a time, in the order they were queued.
+   * Only one sender runs per stream, so the emitter is never written to concurrently.
+   * The queue is checked again after the sender stops, so an event queued while
+   * it was stopping is not left behind. Messages that were already replayed are skipped.
+   *
+   * @param  stream  the stream to send the events of
+   */
+  private void drain(ChatStream stream) {
+    do {
+      PendingEvent pending;
+      while ((pending = stream.pending.poll()) != null) {
+        if (!stream.wasReplayed(pending.messageID())) {
+          send(stream.emitter, pending.event());
+        }
+      }
+      stream.sending.set(false);
+    } while (
+      !stream.pending.isEmpty() && stream.sending.compareAndSet(false, true)
+    );
+  }
+
+  /**
+   * Creates the event of a chat message. Its ID is the ID of the message, which the
+   * client sends back as the ID of the last event it received when it reconnects.
+   *
+   * @param  payload  the conversation ID and the message
+   * @return          the event of the message
+   */
+  private static SseEmitter.SseEventBuilder messageEvent(
+    ChatMessageEventDTO payload
+  ) {
+    return SseEmitter
+      .event()
+      .id(payload.message().ID())
+      .name(MESSAGE_EVENT)
+      .data(payload);
+  }
+
+  /**
+   * Sends an event to a stream, and closes the stream if the client is gone.
+   *
+   * @param  emitter  the emitter of the stream
+   * @param  event    the event to send
+   */
+  private static void send(
+    SseEmitter emitter,
+    SseEmitter.SseEventBuilder event
+  ) {
+    try {
+      emitter.send(event);
+    } catch (IOException | IllegalStateException e) {
+      LOGGER.debug("Closing chat stream: " + e.getMessage());
+      emitter.complete();
+    }
+  }
+
+  /**
+   * Removes a closed stream from the registry. Called once for every stream when it completes.
+   *
+   * @param  userID  the ID of the user owning the stream
+   * @param  stream  the stream
+   */
+  private void remove(String userID, ChatStream stream) {
+    connectionCount.decrementAndGet();
+    stream.pending.clear();
+    streams.computeIfPresent(
+      userID,
+      (key, value) -> {
+        value.remove(stream);
+        return value.isEmpty() ? null : value;
+      }
+    );
+  }
+
+  /**
+   * An open stream with the events still to be sent to it.
+   */
+  private static final class ChatStream {
+    private final SseEmitter emitter;
+    private final Queue<PendingEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile String replayedUpTo;
+
+    private ChatStream(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    /**
+     * Checks if a message was already sent by the replay of missed messages.
+     * Message IDs are monotonic ULIDs, so the replayed messages are those up to the last one.
+     */
+    private boolean wasReplayed(String messageID) {
+      String upTo = replayedUpTo;
+      return (
+        messageID != null && upTo != null && messageID.compareTo(upTo) <= 0
+      );
+    }
+  }
+
+  /**
+   * An event queued on a stream, with the ID of the message it carries, or null.
+   */
+  private record PendingEvent(
+    String messageID,
+    SseEmitter.SseEventBuilder event
+  ) {}
+}
@@ -5,43 +5,61 @@ import no.delalt.back.model.dao.ItemDAO;
 import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.model.dto.output.ItemDTO;
 import no.delalt.back.model.enums.CommunityVisibilityEnum;
+import no.delalt.back.model.object.ItemDistanceCursor;
+import no.delalt.back.model.object.ItemFeedCursor;
+import no.delalt.back.model.object.NearbyItemHit;
+import no.delalt.back.model.object.UserSnapshot;
 import no.delalt.back.repository.CommunityItemRepository;
+import no.delalt.back.repository.ItemRepository;
+import no.delalt.back.repository.UserItemFeedRepository;
+import no.delalt.back.response.list.ItemFeedListResponse;
+import no.delalt.back.response.list.NearbyItemListResponse;
 import no.delalt.back.service.retrieval.CommunityItemRetrievalService;
 import no.delalt.back.service.retrieval.UserCommunityRetrievalService;
 import no.delalt.back.service.validation.CommunityValidationService;
 import no.delalt.back.service.validation.UserCommunityValidationService;
-import no.delalt.back.service.validation.UserValidationService;
 import no.delalt.back.util.SecurityUtil;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CommunityItemService {
   private final CommunityItemRepository communityItemRepository;
   private final UserCommunityRetrievalService userCommunityRetrievalService;
-  private final UserValidationService userValidationService;
   private final CommunityValidationService communityValidationService;
   private final CommunityItemRetrievalService communityItemRetrievalService;
   private final UserCommunityValidationService userCommunityValidationService;
+  private final UserItemFeedRepository userItemFeedRepository;
+  private final ItemRepository itemRepository;
+  private final CurrentUser currentUser;
 
   public CommunityItemService(
     CommunityItemRepository communityItemRepository,
     UserCommunityRetrievalService userCommunityRetrievalService,
-    UserValidationService userValidationService,
     CommunityValidationService communityValidationService,
     CommunityItemRetrievalService communityItemRetrievalService,
-    UserCommunityValidationService userCommunityValidationService
+    UserCommunityValidationService userCommunityValidationService,
+    UserItemFeedRepository userItemFeedRepository,
+    ItemRepository itemRepository,
+    CurrentUser currentUser
   ) {
     this.communityItemRepository = communityItemRepository;
     this.userCommunityRetrievalService = userCommunityRetrievalService;
-    this.userValidationService = userValidationService;
     this.communityValidationService = communityValidationService;
     this.communityItemRetrievalService = communityItemRetrievalService;
     this.userCommunityValidationService = userCommunityValidationService;
+    this.userItemFeedRepository = userItemFeedRepository;
+    this.itemRepository = itemRepository;
+    this.currentUser = currentUser;
   }
 
   // -------------------- Controller Methods --------------------
@@ -54,9 +72,7 @@ public class CommunityItemService {
    */
   @Transactional(readOnly = true)
   public List<ItemDTO> getOtherUserItemsFromUserCommunities() {
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
 
     List<CommunityDAO> userCommunities = userCommunityRetrievalService.getCommunitiesForUser(
       user
@@ -70,6 +86,98 @@ public class CommunityItemService {
     return itemDAOs.stream().map(ItemDTO::new).toList();
   }
 
+  /**
+   * Retrieves a page of the item feed of the authenticated user, newest items first.
+   * The feed holds items of other users in the communities the user is a member of.
+   * It is read from the precomputed feed of the user, and the owners are fetched along
+   * with the items.
+   *
+   * @param  cursor  the cursor returned with the previous page, or null for the first page
+   * @param  limit   the maximum number of items to return
+   * @return         the items and the cursor of the next page, which is null on the last page
+   */
+  @Transactional(readOnly = true)
+  public ItemFeedListResponse handleItemFeed(String cursor, int limit) {
+    String userID = SecurityUtil.getAuthenticatedAccountID();
+    ItemFeedCursor after = cursor != null
+      ? ItemFeedCursor.decode(cursor)
+      : new ItemFeedCursor(0, null);
+
+    // One extra item tells if there is a next page
+    List<ItemDAO> itemDAOs = userItemFeedRepository.findFeedForUser(
+      userID,
+      after.createdAt(),
+      after.itemID(),
+      PageRequest.ofSize(limit + 1)
+    );
+
+    String nextCursor = null;
+    if (itemDAOs.size() > limit) {
+      itemDAOs = itemDAOs.subList(0, limit);
+      ItemDAO last = itemDAOs.get(limit - 1);
+      nextCursor = ItemFeedCursor.encode(last.getCreatedAt(), last.getItemID());
+    }
+
+    return new ItemFeedListResponse(
+      itemDAOs.stream().map(ItemDTO::new).toList(),
+      nextCursor
+    );
+  }
+
+  /**
+   * Retrieves a page of the borrowable items of other users nearest to the authenticated user.
+   * Items are placed at the nearest community they are shared in that the user may see,
+   * which are open communities and the communities of the user.
+   *
+   * @param  cursor  the cursor returned with the previous page, or null for the first page
+   * @param  limit   the maximum number of items to return
+   * @return         the items and the cursor of the next page, which is null on the last page
+   * @throws ResponseStatusException if the cursor is invalid
+   */
+  @Transactional(readOnly = true)
+  public NearbyItemListResponse handleNearbyItems(String cursor, int limit)
+    throws ResponseStatusException {
+    UserSnapshot user = currentUser.getSnapshot();
+    ItemDistanceCursor after = cursor != null
+      ? ItemDistanceCursor.decode(cursor)
+      : new ItemDistanceCursor(0, null);
+
+    // One extra hit tells if there is a next page
+    List<NearbyItemHit> hits = communityItemRepository.findNearestBorrowableItems(
+      user.userID(),
+      user.coordinates().getX(),
+      user.coordinates().getY(),
+      after.distance(),
+      after.itemID(),
+      limit + 1
+    );
+
+    String nextCursor = null;
+    if (hits.size() > limit) {
+      hits = hits.subList(0, limit);
+      NearbyItemHit last = hits.get(limit - 1);
+      nextCursor =
+        ItemDistanceCursor.encode(last.getDistance(), last.getItemID());
+    }
+
+    Map<String, ItemDAO> itemDAOs = itemRepository
+      .findAllWithUserByItemIDIn(
+        hits.stream().map(NearbyItemHit::getItemID).toList()
+      )
+      .stream()
+      .collect(Collectors.toMap(ItemDAO::getItemID, Function.identity()));
+
+    return new NearbyItemListResponse(
+      hits
+        .stream()
+        .map(hit -> itemDAOs.get(hit.getItemID()))
+        .filter(Objects::nonNull)
+        .map(ItemDTO::new)
+        .toList(),
+      nextCursor
+    );
+  }
+
   /**
    * Handles items in a community.
    *
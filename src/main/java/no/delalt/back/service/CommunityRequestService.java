@@ -15,7 +15,6 @@ import no.delalt.back.service.validation.CommunityValidationService;
 import no.delalt.back.service.validation.UserCommunityValidationService;
 import no.delalt.back.service.validation.UserValidationService;
 import no.delalt.back.util.SanitizationUtil;
-import no.delalt.back.util.SecurityUtil;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,6 +34,7 @@ public class CommunityRequestService {
 
   private final CommunityValidationService communityValidationService;
   private final UserValidationService userValidationService;
+  private final CurrentUser currentUser;
 
   public CommunityRequestService(
     CommunityRequestRepository communityRequestRepository,
@@ -44,7 +44,8 @@ public class CommunityRequestService {
     UserCommunityValidationService userCommunityValidationService,
     UserCommunitySaveService userCommunitySaveService,
     CommunityValidationService communityValidationService,
-    UserValidationService userValidationService
+    UserValidationService userValidationService,
+    CurrentUser currentUser
   ) {
     this.communityRequestRepository = communityRequestRepository;
     this.communityRequestRetrievalService = communityRequestRetrievalService;
@@ -54,6 +55,7 @@ public class CommunityRequestService {
     this.userCommunitySaveService = userCommunitySaveService;
     this.communityValidationService = communityValidationService;
     this.userValidationService = userValidationService;
+    this.currentUser = currentUser;
   }
 
   // -------------------- Controller Methods --------------------
@@ -86,9 +88,7 @@ public class CommunityRequestService {
 
     if (
       communityRequestRetrievalService.findRequest(
-        userValidationService.findUserByUserID(
-          SecurityUtil.getAuthenticatedAccountID()
-        ),
+        currentUser.getUserDAO(),
         communityDAO
       ) !=
       null
@@ -103,9 +103,7 @@ public class CommunityRequestService {
 
     communityRequestSaveService.addNewRequest(
       communityDAO,
-      userValidationService.validateUserExistsAndReturn(
-        SecurityUtil.getAuthenticatedAccountID()
-      ),
+      currentUser.getUserDAO(),
       safeMessage
     );
   }
@@ -210,9 +208,7 @@ public class CommunityRequestService {
    */
   @Transactional
   public void removeOwnRequest(String communityID) {
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO userDAO = currentUser.getUserDAO();
     CommunityDAO communityDAO = communityValidationService.validateCommunityExistsAndReturn(
       communityID
     );
@@ -7,6 +7,7 @@ import no.delalt.back.model.dto.input.CommunityCreationDTO;
 import no.delalt.back.model.dto.output.CommunityDTO;
 import no.delalt.back.model.dto.output.UserDTO;
 import no.delalt.back.model.enums.CommunityVisibilityEnum;
+import no.delalt.back.model.object.UserSnapshot;
 import no.delalt.back.repository.CommunityRepository;
 import no.delalt.back.service.deletion.ImageDeletionService;
 import no.delalt.back.service.retrieval.UserCommunityRetrievalService;
@@ -14,10 +15,8 @@ import no.delalt.back.service.save.CommunitySaveService;
 import no.delalt.back.service.save.UserCommunitySaveService;
 import no.delalt.back.service.validation.CommunityValidationService;
 import no.delalt.back.service.validation.UserCommunityValidationService;
-import no.delalt.back.service.validation.UserValidationService;
 import no.delalt.back.util.NanoIdGenerator;
 import no.delalt.back.util.SanitizationUtil;
-import no.delalt.back.util.SecurityUtil;
 import org.locationtech.jts.geom.Point;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -37,8 +36,8 @@ public class CommunityService {
   private final UserCommunityValidationService userCommunityValidationService;
   private final UserCommunitySaveService userCommunitySaveService;
 
-  private final UserValidationService userValidationService;
   private final ImageDeletionService imageDeletionService;
+  private final CurrentUser currentUser;
 
   private final static int MINIMUM_DISTANCE = 500; //In meters
   private final static int MAXIMUM_DISTANCE = 3000; //In meters
@@ -50,8 +49,8 @@ public class CommunityService {
     UserCommunityRetrievalService userCommunityRetrievalService,
     UserCommunityValidationService userCommunityValidationService,
     UserCommunitySaveService userCommunitySaveService,
-    UserValidationService userValidationService,
-    ImageDeletionService imageDeletionService
+    ImageDeletionService imageDeletionService,
+    CurrentUser currentUser
   ) {
     this.communityRepository = communityRepository;
     this.communityValidationService = communityValidationService;
@@ -59,8 +58,8 @@ public class CommunityService {
     this.userCommunityRetrievalService = userCommunityRetrievalService;
     this.userCommunityValidationService = userCommunityValidationService;
     this.userCommunitySaveService = userCommunitySaveService;
-    this.userValidationService = userValidationService;
     this.imageDeletionService = imageDeletionService;
+    this.currentUser = currentUser;
   }
 
   // -------------------- Controller Methods --------------------
@@ -90,9 +89,7 @@ public class CommunityService {
    */
   @Transactional
   public String handleAddCommunity(CommunityCreationDTO communityDTO) {
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO userDAO = currentUser.getUserDAO();
 
     Point coordinates = userDAO.getCoordinates();
 
@@ -126,14 +123,12 @@ public class CommunityService {
       );
     }
 
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserSnapshot user = currentUser.getSnapshot();
     List<CommunityDAO> communityDAOs = getNearbyCommunities(
-      user.getCoordinates().getX(),
-      user.getCoordinates().getY(),
+      user.coordinates().getX(),
+      user.coordinates().getY(),
       distance,
-      user.getUserID()
+      user.userID()
     );
     return communityDAOs.stream().map(CommunityDTO::new).toList();
   }
@@ -187,8 +182,7 @@ public class CommunityService {
       community.getVisibility() == CommunityVisibilityEnum.OPEN.getValue()
     ) {
       community.setCoordinates(
-        userValidationService
-          .validateUserExistsAndReturn(SecurityUtil.getAuthenticatedAccountID())
+        currentUser.getUserDAO()
           .getCoordinates()
       );
     }
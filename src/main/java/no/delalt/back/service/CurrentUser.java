@@ -0,0 +1,75 @@
+package no.delalt.back.service;
+
+import no.delalt.back.cache.UserSnapshotCache;
+import no.delalt.back.model.dao.UserDAO;
+import no.delalt.back.model.object.UserSnapshot;
+import no.delalt.back.repository.UserRepository;
+import no.delalt.back.util.SecurityUtil;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Resolves the authenticated user once per request. The user is validated on first use, and
+ * the snapshot is kept for the rest of the request and briefly shared between requests.
+ */
+@Service
+public class CurrentUser {
+  private final UserRepository userRepository;
+  private final UserSnapshotCache userSnapshotCache;
+
+  public CurrentUser(
+    UserRepository userRepository,
+    UserSnapshotCache userSnapshotCache
+  ) {
+    this.userRepository = userRepository;
+    this.userSnapshotCache = userSnapshotCache;
+  }
+
+  /**
+   * Retrieves the ID of the authenticated user without validating the user.
+   *
+   * @return  the ID of the authenticated user
+   */
+  public String getUserID() {
+    return SecurityUtil.getAuthenticatedAccountID();
+  }
+
+  /**
+   * Retrieves the snapshot of the authenticated user.
+   *
+   * @return  the snapshot of the authenticated user
+   * @throws ResponseStatusException if the user does not exist or is deleted
+   */
+  public UserSnapshot getSnapshot() throws ResponseStatusException {
+    UserSnapshot snapshot = userSnapshotCache.get(
+      getUserID(),
+      userID ->
+        userRepository
+          .findSnapshotByUserID(userID)
+          .orElseThrow(
+            () ->
+              new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found")
+          )
+    );
+    if (snapshot.isDeleted()) {
+      throw new ResponseStatusException(
+        HttpStatus.UNAUTHORIZED,
+        "User is deleted"
+      );
+    }
+    return snapshot;
+  }
+
+  /**
+   * Retrieves the authenticated user as an entity of the current transaction.
+   * The user is validated through the snapshot, so the entity is a reference that is
+   * only loaded if one of its fields is read.
+   *
+   * @return  the authenticated user
+   * @throws ResponseStatusException if the user does not exist or is deleted
+   */
+  public UserDAO getUserDAO() throws ResponseStatusException {
+    return userRepository.getReferenceById(getSnapshot().userID());
+  }
+}
@@ -11,10 +11,8 @@ import no.delalt.back.repository.GatheringRepository;
 import no.delalt.back.repository.UserGatheringRepository;
 import no.delalt.back.service.validation.CommunityValidationService;
 import no.delalt.back.service.validation.UserCommunityValidationService;
-import no.delalt.back.service.validation.UserValidationService;
 import no.delalt.back.util.NanoIdGenerator;
 import no.delalt.back.util.SanitizationUtil;
-import no.delalt.back.util.SecurityUtil;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,27 +26,27 @@ import java.util.List;
 public class GatheringService {
   private final GatheringRepository gatheringRepository;
   private final UserGatheringRepository userGatheringRepository;
-  private final UserValidationService userValidationService;
   private final CommunityValidationService communityValidationService;
   private final UserCommunityValidationService userCommunityValidationService;
+  private final CurrentUser currentUser;
   private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(
     "yyyy-MM-dd HH"
   );
-  private static final int SERVER_HOUR_OFFSET = 12;
+  public static final int SERVER_HOUR_OFFSET = 12;
   private static final int MAXIMUM_TIME_IN_DAYS = 60;
 
   public GatheringService(
     GatheringRepository gatheringRepository,
     UserGatheringRepository userGatheringRepository,
-    UserValidationService userValidationService,
     CommunityValidationService communityValidationService,
-    UserCommunityValidationService userCommunityValidationService
+    UserCommunityValidationService userCommunityValidationService,
+    CurrentUser currentUser
   ) {
     this.gatheringRepository = gatheringRepository;
     this.userGatheringRepository = userGatheringRepository;
-    this.userValidationService = userValidationService;
     this.communityValidationService = communityValidationService;
     this.userCommunityValidationService = userCommunityValidationService;
+    this.currentUser = currentUser;
   }
 
   // -------------------- Controller Methods --------------------
@@ -64,9 +62,7 @@ public class GatheringService {
     String communityID,
     GatheringCreationDTO gatheringCreationDTO
   ) {
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO userDAO = currentUser.getUserDAO();
     CommunityDAO communityDAO = communityValidationService.validateCommunityExistsAndReturn(
       communityID
     );
@@ -118,9 +114,7 @@ public class GatheringService {
    */
   @Transactional
   public void attendGathering(String gatheringID) {
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO userDAO = currentUser.getUserDAO();
     GatheringDAO gatheringDAO = validateGatheringExistsAndReturn(gatheringID);
     userCommunityValidationService.validateCurrentUserIsMemberOfCommunity(
       gatheringDAO.getCommunity().getCommunityID()
@@ -8,9 +8,7 @@ import no.delalt.back.repository.InviteRepository;
 import no.delalt.back.service.save.UserCommunitySaveService;
 import no.delalt.back.service.validation.CommunityValidationService;
 import no.delalt.back.service.validation.UserCommunityValidationService;
-import no.delalt.back.service.validation.UserValidationService;
 import no.delalt.back.util.NanoIdGenerator;
-import no.delalt.back.util.SecurityUtil;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,24 +23,24 @@ public class InviteService {
   private final UserCommunityValidationService userCommunityValidationService;
 
   private final InviteRepository inviteRepository;
-  private final UserValidationService userValidationService;
   private final CommunityValidationService communityValidationService;
+  private final CurrentUser currentUser;
 
   public InviteService(
     UserCommunitySaveService userCommunitySaveService,
     UserCommunityValidationService userCommunityValidationService,
     InviteRepository inviteRepository,
-    UserValidationService userValidationService,
-    CommunityValidationService communityValidationService
+    CommunityValidationService communityValidationService,
+    CurrentUser currentUser
   ) {
     this.userCommunitySaveService = userCommunitySaveService;
     this.userCommunityValidationService = userCommunityValidationService;
     this.inviteRepository = inviteRepository;
-    this.userValidationService = userValidationService;
     this.communityValidationService = communityValidationService;
+    this.currentUser = currentUser;
   }
 
-  private static final int EXPIRATION_IN_HOURS = 24;
+  public static final int EXPIRATION_IN_HOURS = 24;
 
   // -------------------- Controller Methods --------------------
 
@@ -90,9 +88,7 @@ public class InviteService {
       communityDAO
     );
 
-    UserDAO user = userValidationService.findUserByUserID(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
 
     userCommunitySaveService.saveUserToCommunity(user, communityDAO);
 
@@ -123,9 +119,7 @@ public class InviteService {
     String uniqueID = NanoIdGenerator.generateNanoID();
     invite.setInviteID(uniqueID);
 
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO userDAO = currentUser.getUserDAO();
     invite.setUser(userDAO);
 
     invite.setCommunity(communityDAO);
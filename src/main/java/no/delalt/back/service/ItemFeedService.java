@@ -0,0 +1,100 @@
+package no.delalt.back.service;
+
+import no.delalt.back.repository.UserItemFeedRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+
+@Service
+public class ItemFeedService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    ItemFeedService.class
+  );
+  private static final long REBUILD_LOCK_KEY = 7_341_001L;
+  private final UserItemFeedRepository userItemFeedRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  public ItemFeedService(
+    UserItemFeedRepository userItemFeedRepository,
+    TransactionTemplate transactionTemplate
+  ) {
+    this.userItemFeedRepository = userItemFeedRepository;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  /**
+   * Recomputes the feed entries of an item, after it is created, changed or deleted.
+   *
+   * @param  itemID  the ID of the item
+   */
+  @Transactional
+  public void refreshItem(String itemID) {
+    userItemFeedRepository.deleteByItemID(itemID);
+    userItemFeedRepository.insertForItem(itemID);
+  }
+
+  /**
+   * Recomputes the feed entries of several items at once.
+   *
+   * @param  itemIDs  the IDs of the items
+   */
+  @Transactional
+  public void refreshItems(Collection<String> itemIDs) {
+    if (itemIDs.isEmpty()) {
+      return;
+    }
+    userItemFeedRepository.deleteByItemIDIn(itemIDs);
+    userItemFeedRepository.insertForItems(itemIDs);
+  }
+
+  /**
+   * Recomputes the feed of a user and the feed entries of the items of the user,
+   * after the user joins or leaves a community.
+   *
+   * @param  userID  the ID of the user
+   */
+  @Transactional
+  public void refreshUser(String userID) {
+    userItemFeedRepository.deleteForUser(userID);
+    userItemFeedRepository.insertForUser(userID);
+  }
+
+  /**
+   * Builds the feeds on startup if they have never been built.
+   *
+   * @EventListener(ApplicationReadyEvent)
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildIfEmpty() {
+    if (userItemFeedRepository.count() == 0) {
+      rebuild();
+    }
+  }
+
+  /**
+   * Recomputes the feeds of all users, to repair any drift from the incremental updates.
+   * When several instances run, only the one holding the advisory lock rebuilds.
+   *
+   * @Scheduled(cron = "${item.feed.rebuild-cron:0 30 3 * * *}")
+   */
+  @Scheduled(cron = "${item.feed.rebuild-cron:0 30 3 * * *}")
+  public void rebuild() {
+    transactionTemplate.executeWithoutResult(
+      status -> {
+        if (!userItemFeedRepository.tryAdvisoryLock(REBUILD_LOCK_KEY)) {
+          return;
+        }
+        userItemFeedRepository.deleteEverything();
+        int entries = userItemFeedRepository.insertEverything();
+        LOGGER.info("Rebuilt the item feeds with " + entries + " entries");
+      }
+    );
+  }
+}
@@ -1,7 +1,5 @@
 package no.delalt.back.service;
 
-import no.delalt.back.model.dao.CommunityDAO;
-import no.delalt.back.model.dao.CommunityItemDAO;
 import no.delalt.back.model.dao.ImageDAO;
 import no.delalt.back.model.dao.ItemDAO;
 import no.delalt.back.model.dao.UserDAO;
@@ -9,22 +7,25 @@ import no.delalt.back.model.dto.input.ItemCreationDTO;
 import no.delalt.back.model.dto.input.ItemModifyDTO;
 import no.delalt.back.model.dto.output.ItemDTO;
 import no.delalt.back.model.dto.output.ItemOwnerDTO;
+import no.delalt.back.model.object.ItemSearchCursor;
+import no.delalt.back.model.object.ItemSearchHit;
 import no.delalt.back.repository.ItemRepository;
+import no.delalt.back.response.list.ItemSearchListResponse;
 import no.delalt.back.service.deletion.CommunityItemDeletionService;
 import no.delalt.back.service.deletion.ImageDeletionService;
 import no.delalt.back.service.retrieval.CommunityItemRetrievalService;
 import no.delalt.back.service.retrieval.ImageRetrievalService;
 import no.delalt.back.service.save.CommunityItemSaveService;
 import no.delalt.back.service.save.ItemSaveService;
-import no.delalt.back.service.validation.CommunityValidationService;
 import no.delalt.back.service.validation.ItemValidationService;
 import no.delalt.back.service.validation.UserCommunityValidationService;
 import no.delalt.back.service.validation.UserValidationService;
 import no.delalt.back.util.NanoIdGenerator;
 import no.delalt.back.util.SanitizationUtil;
-import no.delalt.back.util.SecurityUtil;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -37,6 +38,7 @@ import java.util.stream.Collectors;
 
 @Service
 public class ItemService {
+  private static final int MAX_SEARCH_TERMS = 8;
   private final ItemRepository itemRepository;
   private final ItemValidationService itemValidationService;
   private final ItemSaveService itemSaveService;
@@ -48,9 +50,10 @@ public class ItemService {
   private final ImageRetrievalService imageRetrievalService;
   private final ImageDeletionService imageDeletionService;
 
-  private final CommunityValidationService communityValidationService;
   private final UserCommunityValidationService userCommunityValidationService;
   private final UserValidationService userValidationService;
+  private final ItemFeedService itemFeedService;
+  private final CurrentUser currentUser;
 
   public ItemService(
     ItemRepository itemRepository,
@@ -61,9 +64,10 @@ public class ItemService {
     CommunityItemRetrievalService communityItemRetrievalService,
     ImageRetrievalService imageRetrievalService,
     ImageDeletionService imageDeletionService,
-    CommunityValidationService communityValidationService,
     UserCommunityValidationService userCommunityValidationService,
-    UserValidationService userValidationService
+    UserValidationService userValidationService,
+    ItemFeedService itemFeedService,
+    CurrentUser currentUser
   ) {
     this.itemRepository = itemRepository;
     this.itemValidationService = itemValidationService;
@@ -73,9 +77,10 @@ public class ItemService {
     this.communityItemRetrievalService = communityItemRetrievalService;
     this.imageRetrievalService = imageRetrievalService;
     this.imageDeletionService = imageDeletionService;
-    this.communityValidationService = communityValidationService;
     this.userCommunityValidationService = userCommunityValidationService;
     this.userValidationService = userValidationService;
+    this.itemFeedService = itemFeedService;
+    this.currentUser = currentUser;
   }
 
   // -------------------- Controller Methods --------------------
@@ -88,8 +93,13 @@ public class ItemService {
    */
   @Transactional
   public String createItem(ItemCreationDTO itemDTO, boolean isGiven) {
-    UserDAO currentUserDAO = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
+    UserDAO currentUserDAO = currentUser.getUserDAO();
+
+    Set<String> communityIDs = new HashSet<>(
+      Arrays.asList(itemDTO.communityIDs())
+    );
+    userCommunityValidationService.validateCurrentUserIsMemberOfCommunities(
+      communityIDs
     );
 
     ItemDAO item = new ItemDAO();
@@ -113,20 +123,14 @@ public class ItemService {
     item.setDescription(safeDescription);
     item.setUser(currentUserDAO);
     item.setIsForGiving(isGiven);
+    item.setCreatedAt(System.currentTimeMillis());
 
     //TODO Dont let the user create more than 100 items
 
     itemSaveService.saveItem(item);
+    communityItemSaveService.saveCommunityItems(item, communityIDs);
 
-    for (String communityID : itemDTO.communityIDs()) {
-      CommunityDAO communityDAO = communityValidationService.validateCommunityExistsAndReturn(
-        communityID
-      );
-      userCommunityValidationService.validateCurrentUserIsMemberOfCommunity(
-        communityDAO.getCommunityID()
-      );
-      communityItemSaveService.saveCommunityItem(communityDAO, item);
-    }
+    itemFeedService.refreshItem(uniqueID);
 
     return uniqueID;
   }
@@ -159,15 +163,85 @@ public class ItemService {
    */
   @Transactional(readOnly = true)
   public List<ItemDTO> getAllItemsForActiveUser() {
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
     List<ItemDAO> itemDAOs = itemRepository.findAllByUserAndIsDeletedIsFalse(
       user
     );
     return itemDAOs.stream().map(ItemDTO::new).toList();
   }
 
+  /**
+   * Searches the items of other users in the communities of the authenticated user.
+   * Every term of the query matches words starting with it in the title or description,
+   * and the whole query also matches titles with similar words, to tolerate typos.
+   * The best matches come first.
+   *
+   * @param  query        the search query
+   * @param  communityID  the ID of the community to search in, or null for all communities of the user
+   * @param  cursor       the cursor returned with the previous page, or null for the first page
+   * @param  limit        the maximum number of items to return
+   * @return              the items and the cursor of the next page, which is null on the last page
+   * @throws ResponseStatusException if the query has no searchable terms or the cursor is invalid
+   */
+  @Transactional(readOnly = true)
+  public ItemSearchListResponse searchItems(
+    String query,
+    String communityID,
+    String cursor,
+    int limit
+  )
+    throws ResponseStatusException {
+    List<String> terms = Arrays
+      .stream(query.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+      .filter(term -> !term.isEmpty())
+      .limit(MAX_SEARCH_TERMS)
+      .toList();
+    if (terms.isEmpty()) {
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "The query has no searchable terms"
+      );
+    }
+    ItemSearchCursor after = cursor != null
+      ? ItemSearchCursor.decode(cursor)
+      : new ItemSearchCursor(0, null);
+
+    // One extra hit tells if there is a next page
+    List<ItemSearchHit> hits = itemRepository.searchForUser(
+      currentUser.getSnapshot().userID(),
+      terms.stream().map(term -> term + ":*").collect(Collectors.joining(" & ")),
+      String.join(" ", terms),
+      communityID,
+      after.score(),
+      after.itemID(),
+      limit + 1
+    );
+
+    String nextCursor = null;
+    if (hits.size() > limit) {
+      hits = hits.subList(0, limit);
+      ItemSearchHit last = hits.get(limit - 1);
+      nextCursor = ItemSearchCursor.encode(last.getScore(), last.getItemID());
+    }
+
+    Map<String, ItemDAO> itemDAOs = itemRepository
+      .findAllWithUserByItemIDIn(
+        hits.stream().map(ItemSearchHit::getItemID).toList()
+      )
+      .stream()
+      .collect(Collectors.toMap(ItemDAO::getItemID, Function.identity()));
+
+    return new ItemSearchListResponse(
+      hits
+        .stream()
+        .map(hit -> itemDAOs.get(hit.getItemID()))
+        .filter(Objects::nonNull)
+        .map(ItemDTO::new)
+        .toList(),
+      nextCursor
+    );
+  }
+
   /**
    * Updates an item based on the given ItemModifyDTO.
    *
@@ -198,27 +272,17 @@ public class ItemService {
     }
 
     itemSaveService.saveItem(item);
-    //TODO Shouldnt delete all with item
     //TODO Check that the communities are not empty
-    communityItemDeletionService.deleteAllWithItem(item);
-
-    for (String communityID : itemDTO.communityIDs()) {
-      CommunityDAO communityDAO = communityValidationService.validateCommunityExistsAndReturn(
-        communityID
-      );
-      userCommunityValidationService.validateCurrentUserIsMemberOfCommunity(
-        communityDAO.getCommunityID()
-      );
-      communityItemSaveService.saveCommunityItem(communityDAO, item);
-    }
-
     updateItemCommunities(item, itemDTO);
+    itemFeedService.refreshItem(itemID);
   }
 
   // -------------------- Helper Methods --------------------
 
   /**
    * Updates the communities associated with an item.
+   * Only the difference between the current and the new communities is written,
+   * with one delete statement for the removed communities and one batch insert for the added ones.
    *
    * @param  item           the item to be updated
    * @param  itemModifyDTO  the DTO containing the modified item data
@@ -227,10 +291,9 @@ public class ItemService {
     ItemDAO item,
     ItemModifyDTO itemModifyDTO
   ) {
-    List<CommunityItemDAO> communityItemDAOs = communityItemRetrievalService.getAllCommunityItemForItem(
-      item
+    Set<String> currentCommunityIds = new HashSet<>(
+      communityItemRetrievalService.getCommunityItemIDsByItemID(item)
     );
-    Set<String> currentCommunityIds = extractCommunityIds(communityItemDAOs);
     Set<String> newCommunityIds = new HashSet<>(
       Arrays.asList(itemModifyDTO.communityIDs())
     );
@@ -241,73 +304,10 @@ public class ItemService {
     Set<String> toRemove = new HashSet<>(currentCommunityIds);
     toRemove.removeAll(newCommunityIds);
 
-    Map<String, CommunityItemDAO> communityItemMap = communityItemDAOs
-      .stream()
-      .collect(
-        Collectors.toMap(
-          communityItem -> communityItem.getCommunity().getCommunityID(),
-          Function.identity()
-        )
-      );
-
-    processRemovals(toRemove, communityItemMap);
-    processAdditions(toAdd, item);
-  }
-
-  /**
-   * Extracts the community IDs from a list of CommunityItemDAO objects.
-   *
-   * @param  communityItemDAOs  the list of CommunityItemDAO objects
-   * @return                    the set of community IDs
-   */
-  private Set<String> extractCommunityIds(
-    List<CommunityItemDAO> communityItemDAOs
-  ) {
-    return communityItemDAOs
-      .stream()
-      .map(communityItem -> communityItem.getCommunity().getCommunityID())
-      .collect(Collectors.toSet());
-  }
-
-  /**
-   * Processes the removals of communities from an item.
-   *
-   * @param  toRemove  the set of community IDs to remove
-   * @param  communityItemMap  the map of community IDs to CommunityItemDAO objects
-   */
-  private void processRemovals(
-    Set<String> toRemove,
-    Map<String, CommunityItemDAO> communityItemMap
-  ) {
-    toRemove.forEach(
-      communityIdToRemove -> {
-        CommunityItemDAO communityItemDAO = communityItemMap.get(
-          communityIdToRemove
-        );
-        if (communityItemDAO != null) {
-          communityItemDeletionService.deleteCommunityItem(communityItemDAO);
-        }
-      }
-    );
-  }
-
-  /**
-   * Processes the additions of communities to an item.
-   *
-   * @param  toAdd  the set of community IDs to add
-   * @param  item   the item to add the communities to
-   */
-  private void processAdditions(Set<String> toAdd, ItemDAO item) {
-    toAdd.forEach(
-      communityIdToAdd -> {
-        CommunityDAO communityDAO = communityValidationService.validateCommunityExistsAndReturn(
-          communityIdToAdd
-        );
-        userCommunityValidationService.validateCurrentUserIsMemberOfCommunity(
-          communityDAO.getCommunityID()
-        );
-        communityItemSaveService.saveCommunityItem(communityDAO, item);
-      }
+    userCommunityValidationService.validateCurrentUserIsMemberOfCommunities(
+      toAdd
     );
+    communityItemDeletionService.deleteItemFromCommunities(item, toRemove);
+    communityItemSaveService.saveCommunityItems(item, toAdd);
   }
 }
@@ -31,6 +31,7 @@ public class UserCommunityService {
   private final CommunityDeletionService communityDeletionService;
 
   private final UserValidationService userValidationService;
+  private final CurrentUser currentUser;
 
   public UserCommunityService(
     UserCommunityRepository userCommunityRepository,
@@ -39,7 +40,8 @@ public class UserCommunityService {
     UserCommunitySaveService userCommunitySaveService,
     CommunityValidationService communityValidationService,
     CommunityDeletionService communityDeletionService,
-    UserValidationService userValidationService
+    UserValidationService userValidationService,
+    CurrentUser currentUser
   ) {
     this.userCommunityRepository = userCommunityRepository;
     this.userCommunityValidationService = userCommunityValidationService;
@@ -48,6 +50,7 @@ public class UserCommunityService {
     this.communityValidationService = communityValidationService;
     this.communityDeletionService = communityDeletionService;
     this.userValidationService = userValidationService;
+    this.currentUser = currentUser;
   }
 
   // -------------------- Controller Methods --------------------
@@ -77,9 +80,7 @@ public class UserCommunityService {
       communityDAO
     );
 
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
 
     communityValidationService.validateUserIsNearCommunity(user, communityID);
 
@@ -93,12 +94,10 @@ public class UserCommunityService {
    */
   @Transactional(readOnly = true)
   public List<CommunityDTO> getCommunitiesForCurrentUser() {
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
 
     return userCommunityRepository
-      .findAllByUser(user)
+      .findAllByUserAndCommunity_DeletedAtIsNull(user)
       .stream()
       .map(UserCommunityDAO::getCommunity)
       .map(CommunityDTO::new)
@@ -112,11 +111,9 @@ public class UserCommunityService {
    */
   @Transactional(readOnly = true)
   public List<String> getAdminCommunitiesForCurrentUser() {
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
 
-    List<UserCommunityDAO> userCommunityDAOs = userCommunityRepository.findByUserAndIsAdministratorTrue(
+    List<UserCommunityDAO> userCommunityDAOs = userCommunityRepository.findByUserAndIsAdministratorTrueAndCommunity_DeletedAtIsNull(
       user
     );
 
@@ -155,7 +152,10 @@ public class UserCommunityService {
     userCommunityDeletionService.deleteUserFromCommunity(userCommunityDAO);
 
     if (membersCount == 1) {
-      communityDeletionService.removeCommunity(communityID);
+      communityDeletionService.removeCommunity(
+        communityID,
+        SecurityUtil.getAuthenticatedAccountID()
+      );
     }
   }
 
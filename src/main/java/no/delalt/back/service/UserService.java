@@ -14,7 +14,6 @@ import no.delalt.back.service.validation.ImageValidationService;
 import no.delalt.back.service.validation.UserValidationService;
 import no.delalt.back.service.worker.AuthWorkerSevice;
 import no.delalt.back.util.SanitizationUtil;
-import no.delalt.back.util.SecurityUtil;
 import org.locationtech.jts.geom.Point;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -30,6 +29,7 @@ public class UserService {
   private final ImageValidationService imageValidationService;
 
   private final AuthWorkerSevice authWorkerSevice;
+  private final CurrentUser currentUser;
 
   private final static int LOCATION_UPDATE_LIMIT = 30; //In days
 
@@ -38,13 +38,15 @@ public class UserService {
     UserValidationService userValidationService,
     ImageDeletionService imageDeletionService,
     ImageValidationService imageValidationService,
-    AuthWorkerSevice authWorkerSevice
+    AuthWorkerSevice authWorkerSevice,
+    CurrentUser currentUser
   ) {
     this.userSaveService = userSaveService;
     this.userValidationService = userValidationService;
     this.imageDeletionService = imageDeletionService;
     this.imageValidationService = imageValidationService;
     this.authWorkerSevice = authWorkerSevice;
+    this.currentUser = currentUser;
   }
 
   // -------------------- Controller Methods --------------------
@@ -56,8 +58,7 @@ public class UserService {
    */
   @Transactional(readOnly = true)
   public UserDTO retrieveCurrentUserDAO() {
-    String userID = SecurityUtil.getAuthenticatedAccountID();
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(userID);
+    UserDAO userDAO = currentUser.getUserDAO();
     return new UserDTO(userDAO);
   }
 
@@ -68,8 +69,7 @@ public class UserService {
    */
   @Transactional
   public void updateUserProfile(UserModifyDTO userDTO) {
-    String userID = SecurityUtil.getAuthenticatedAccountID();
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(userID);
+    UserDAO userDAO = currentUser.getUserDAO();
 
     if (
       userDAO.getImage() != null &&
@@ -101,8 +101,7 @@ public class UserService {
    */
   @Transactional
   public AuthResponse changeUserPassword(PasswordDTO passwordDTO) {
-    String userID = SecurityUtil.getAuthenticatedAccountID();
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(userID);
+    UserDAO userDAO = currentUser.getUserDAO();
     AuthWorkerSevice.attemptAuthenticationOfPassword(
       userDAO,
       passwordDTO.oldPassword()
@@ -1,12 +1,8 @@
 package no.delalt.back.service.deletion;
 
-import no.delalt.back.model.dao.BorrowAgreementDAO;
-import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.repository.BorrowAgreementRepository;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class BorrowAgreementDeletionService {
   private final BorrowAgreementRepository borrowAgreementRepository;
@@ -17,10 +13,7 @@ public class BorrowAgreementDeletionService {
     this.borrowAgreementRepository = borrowAgreementRepository;
   }
 
-  public void deleteBorrowAgreementsForOwner(UserDAO userDAO) {
-    List<BorrowAgreementDAO> borrowAgreementDAOList = borrowAgreementRepository.findAllByOwner(
-      userDAO
-    );
-    borrowAgreementRepository.deleteAll(borrowAgreementDAOList);
+  public int deleteBorrowAgreementsForOwner(String userID, int limit) {
+    return borrowAgreementRepository.deleteForOwner(userID, limit);
   }
 }
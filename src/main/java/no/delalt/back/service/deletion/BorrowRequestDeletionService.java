@@ -1,7 +1,5 @@
 package no.delalt.back.service.deletion;
 
-import no.delalt.back.model.dao.BorrowRequestDAO;
-import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.model.enums.BorrowRequestStatusEnum;
 import no.delalt.back.repository.BorrowRequestRepository;
 import org.springframework.stereotype.Service;
@@ -18,72 +16,25 @@ public class BorrowRequestDeletionService {
     this.borrowRequestRepository = borrowRequestRepository;
   }
 
-  public void deleteUnprocessedRequestsForUser(UserDAO userDAO) {
-    deleteUnprocessedRequestsForRequester(userDAO);
-    deleteUnprocessedRequestsForOwner(userDAO);
-  }
-
-  public void deleteProcessedButNotAcceptedRequestsForUser(UserDAO userDAO) {
-    deleteProcessedButNotAcceptedRequestsForRequester(userDAO);
-    deleteProcessedButNotAcceptedRequestsForOwner(userDAO);
-  }
-
-  public void deleteProcessedAcceptedForOwner(UserDAO userDAO) {
-    List<BorrowRequestDAO> borrowRequestDAOList = borrowRequestRepository.findAllByOwnerAndIsProcessedAndStatus(
-      userDAO,
-      true,
-      BorrowRequestStatusEnum.ACCEPTED.getValue()
-    );
-    borrowRequestRepository.deleteAll(borrowRequestDAOList);
-  }
-
-  // -------------------- Helper Methods --------------------
-
-  private void deleteUnprocessedRequestsForRequester(UserDAO userDAO) {
-    List<BorrowRequestDAO> borrowRequestDAOList = borrowRequestRepository.findAllByRequesterAndIsProcessed(
-      userDAO,
-      false
-    );
-    borrowRequestRepository.deleteAll(borrowRequestDAOList);
-  }
-
-  private void deleteUnprocessedRequestsForOwner(UserDAO userDAO) {
-    List<BorrowRequestDAO> borrowRequestDAOList = borrowRequestRepository.findAllByOwnerAndIsProcessed(
-      userDAO,
-      false
-    );
-    borrowRequestRepository.deleteAll(borrowRequestDAOList);
-  }
-
-  private void deleteProcessedButNotAcceptedRequestsForOwner(UserDAO userDAO) {
-    List<BorrowRequestDAO> rejectedBorrowRequestDAOList = borrowRequestRepository.findAllByOwnerAndIsProcessedAndStatus(
-      userDAO,
-      true,
-      BorrowRequestStatusEnum.REJECTED.getValue()
-    );
-    List<BorrowRequestDAO> canceledBorrowRequestDAOList = borrowRequestRepository.findAllByOwnerAndIsProcessedAndStatus(
-      userDAO,
-      true,
-      BorrowRequestStatusEnum.CANCELED.getValue()
-    );
-    borrowRequestRepository.deleteAll(rejectedBorrowRequestDAOList);
-    borrowRequestRepository.deleteAll(canceledBorrowRequestDAOList);
-  }
-
-  private void deleteProcessedButNotAcceptedRequestsForRequester(
-    UserDAO userDAO
-  ) {
-    List<BorrowRequestDAO> rejectedBorrowRequestDAOList = borrowRequestRepository.findAllByRequesterAndIsProcessedAndStatus(
-      userDAO,
-      true,
-      BorrowRequestStatusEnum.REJECTED.getValue()
-    );
-    List<BorrowRequestDAO> canceledBorrowRequestDAOList = borrowRequestRepository.findAllByRequesterAndIsProcessedAndStatus(
-      userDAO,
-      true,
-      BorrowRequestStatusEnum.CANCELED.getValue()
+  /**
+   * Deletes up to the given number of borrow requests of a user. These are the
+   * unprocessed, rejected and canceled requests the user sent or received, and
+   * the accepted requests for items of the user. The borrow agreements of the
+   * user must have been deleted first.
+   *
+   * @param  userID  the ID of the user
+   * @param  limit   the maximum number of requests to delete
+   * @return         the number of requests deleted
+   */
+  public int deleteRequestsForUser(String userID, int limit) {
+    return borrowRequestRepository.deleteForUser(
+      userID,
+      List.of(
+        BorrowRequestStatusEnum.REJECTED.getValue(),
+        BorrowRequestStatusEnum.CANCELED.getValue()
+      ),
+      BorrowRequestStatusEnum.ACCEPTED.getValue(),
+      limit
     );
-    borrowRequestRepository.deleteAll(rejectedBorrowRequestDAOList);
-    borrowRequestRepository.deleteAll(canceledBorrowRequestDAOList);
   }
 }
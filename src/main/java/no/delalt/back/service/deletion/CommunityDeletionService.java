@@ -1,60 +1,101 @@
 package no.delalt.back.service.deletion;
 
+import no.delalt.back.cache.MembershipCache;
 import no.delalt.back.model.dao.CommunityDAO;
-import no.delalt.back.model.dao.CommunityItemDAO;
-import no.delalt.back.model.dao.UserCommunityDAO;
+import no.delalt.back.model.dao.CommunityPurgeDAO;
+import no.delalt.back.model.dto.output.CommunityPurgeDTO;
+import no.delalt.back.model.enums.CommunityPurgePhaseEnum;
+import no.delalt.back.model.enums.PurgePhase;
+import no.delalt.back.repository.CommunityPurgeRepository;
 import no.delalt.back.repository.CommunityRepository;
-import no.delalt.back.service.retrieval.CommunityItemRetrievalService;
-import no.delalt.back.service.retrieval.UserCommunityRetrievalService;
+import no.delalt.back.repository.GatheringRepository;
+import no.delalt.back.repository.UserGatheringRepository;
 import no.delalt.back.service.validation.CommunityValidationService;
 import no.delalt.back.service.validation.UserCommunityValidationService;
+import no.delalt.back.util.SecurityUtil;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @Service
 public class CommunityDeletionService {
   private final CommunityRepository communityRepository;
+  private final CommunityPurgeRepository communityPurgeRepository;
   private final CommunityValidationService communityValidationService;
 
-  private final CommunityItemRetrievalService communityItemRetrievalService;
   private final CommunityItemDeletionService communityItemDeletionService;
+  private final CommunityRequestDeletionService communityRequestDeletionService;
+  private final InviteDeletionService inviteDeletionService;
 
   private final UserCommunityValidationService userCommunityValidationService;
-  private final UserCommunityRetrievalService userCommunityRetrievalService;
   private final UserCommunityDeletionService userCommunityDeletionService;
 
+  private final GatheringRepository gatheringRepository;
+  private final UserGatheringRepository userGatheringRepository;
+
   private final ImageDeletionService imageDeletionService;
+  private final MembershipCache membershipCache;
 
   public CommunityDeletionService(
     CommunityRepository communityRepository,
+    CommunityPurgeRepository communityPurgeRepository,
     UserCommunityValidationService userCommunityValidationService,
     CommunityValidationService communityValidationService,
     ImageDeletionService imageDeletionService,
-    UserCommunityRetrievalService userCommunityRetrievalService,
     UserCommunityDeletionService userCommunityDeletionService,
-    CommunityItemRetrievalService communityItemRetrievalService,
-    CommunityItemDeletionService communityItemDeletionService
+    CommunityItemDeletionService communityItemDeletionService,
+    CommunityRequestDeletionService communityRequestDeletionService,
+    InviteDeletionService inviteDeletionService,
+    GatheringRepository gatheringRepository,
+    UserGatheringRepository userGatheringRepository,
+    MembershipCache membershipCache
   ) {
     this.communityRepository = communityRepository;
+    this.communityPurgeRepository = communityPurgeRepository;
     this.userCommunityValidationService = userCommunityValidationService;
     this.communityValidationService = communityValidationService;
     this.imageDeletionService = imageDeletionService;
-    this.userCommunityRetrievalService = userCommunityRetrievalService;
     this.userCommunityDeletionService = userCommunityDeletionService;
-    this.communityItemRetrievalService = communityItemRetrievalService;
     this.communityItemDeletionService = communityItemDeletionService;
+    this.communityRequestDeletionService = communityRequestDeletionService;
+    this.inviteDeletionService = inviteDeletionService;
+    this.gatheringRepository = gatheringRepository;
+    this.userGatheringRepository = userGatheringRepository;
+    this.membershipCache = membershipCache;
   }
 
   /**
-   * Deletes a community.
+   * Deletes a community and its image.
+   * Writes that validated the community before it was deleted can still add rows after
+   * their phase has run, so the rows left over by the earlier phases are deleted in the
+   * same transaction as the community, which would otherwise violate their foreign keys.
    *
-   * @param  communityDAO  the community to be deleted
+   * @param  communityID  the ID of the community to be deleted
+   * @return              the number of rows deleted
    */
-  private void deleteCommunity(CommunityDAO communityDAO) {
+  private int deleteCommunity(String communityID) {
+    CommunityDAO communityDAO = communityRepository
+      .findById(communityID)
+      .orElse(null);
+    if (communityDAO == null) {
+      return 0;
+    }
+    int rows = 0;
+    for (
+      CommunityPurgePhaseEnum phase = CommunityPurgePhaseEnum.COMMUNITY_ITEMS;
+      phase != CommunityPurgePhaseEnum.COMMUNITY;
+      phase = PurgePhase.next(phase)
+    ) {
+      rows += purge(communityID, phase, Integer.MAX_VALUE);
+    }
+    if (communityDAO.getImage() != null) {
+      imageDeletionService.deleteImageIfExists(communityDAO.getImage());
+    }
     communityRepository.delete(communityDAO);
+    return rows + 1;
   }
 
   /**
@@ -65,54 +106,113 @@ public class CommunityDeletionService {
   @Transactional
   public void handleRemoveCommunity(String communityID) {
     userCommunityValidationService.validateUserIsAdminInCommunity(communityID);
-    removeCommunity(communityID);
+    removeCommunity(communityID, SecurityUtil.getAuthenticatedAccountID());
   }
 
   /**
    * Removes a community.
+   * The community is only marked as deleted here, which hides it from all reads at once.
+   * Its members, items, requests, gatherings and invites are deleted in chunks by the
+   * community purge worker, which deletes the community itself last.
    *
    * @param  communityID  the ID of the community to remove
+   * @param  requestedBy  the ID of the user removing the community
    * @throws ResponseStatusException  if the community does not exist
    */
-  public void removeCommunity(String communityID)
+  public void removeCommunity(String communityID, String requestedBy)
     throws ResponseStatusException {
     CommunityDAO communityDAO = communityValidationService.validateCommunityExistsAndReturn(
       communityID
     );
 
-    removeAllUsersFromCommunity(communityDAO);
-    deleteAllCommunityItems(communityDAO);
-    if (communityDAO.getImage() != null) {
-      imageDeletionService.deleteImage(communityDAO.getImage());
-    }
-    deleteCommunity(communityDAO);
+    communityDAO.setDeletedAt(LocalDate.now());
+    communityRepository.save(communityDAO);
+    communityPurgeRepository.save(
+      new CommunityPurgeDAO(
+        communityID,
+        requestedBy,
+        CommunityPurgePhaseEnum.COMMUNITY_ITEMS.getValue(),
+        System.currentTimeMillis()
+      )
+    );
+    membershipCache.invalidateAll();
   }
 
   /**
-   * Removes all users from a community.
+   * Retrieves the progress of the deletion of a community.
+   * Only the user who removed the community may read it.
    *
-   * @param  communityDAO  the community to remove users from
+   * @param  communityID  the ID of the deleted community
+   * @return              the progress of the deletion
+   * @throws ResponseStatusException  if the community has not been deleted,
+   *                                  or was removed by another user
    */
-  private void removeAllUsersFromCommunity(CommunityDAO communityDAO) {
-    List<UserCommunityDAO> users = userCommunityRetrievalService.findAllMembersInACommunityByCommunity(
-      communityDAO
-    );
-    for (UserCommunityDAO user : users) {
-      userCommunityDeletionService.deleteUserFromCommunity(user);
+  @Transactional(readOnly = true)
+  public CommunityPurgeDTO getDeletionProgress(String communityID)
+    throws ResponseStatusException {
+    CommunityPurgeDAO communityPurgeDAO = communityPurgeRepository
+      .findById(communityID)
+      .orElseThrow(
+        () ->
+          new ResponseStatusException(
+            HttpStatus.NOT_FOUND,
+            "Community deletion not found"
+          )
+      );
+    if (
+      !SecurityUtil
+        .getAuthenticatedAccountID()
+        .equals(communityPurgeDAO.getRequestedBy())
+    ) {
+      throw new ResponseStatusException(
+        HttpStatus.FORBIDDEN,
+        "You do not have permission"
+      );
     }
+    return new CommunityPurgeDTO(communityPurgeDAO);
   }
 
   /**
-   * Removes all community items from a community.
+   * Deletes up to the given number of rows of one phase of the data of a deleted community.
+   * A phase is finished once fewer rows than the limit are deleted.
    *
-   * @param  communityDAO  the community to remove community items from
+   * @param  communityID  the ID of the community
+   * @param  phase        the phase to delete the data of
+   * @param  limit        the maximum number of rows to delete
+   * @return              the number of rows deleted
    */
-  private void deleteAllCommunityItems(CommunityDAO communityDAO) {
-    List<CommunityItemDAO> items = communityItemRetrievalService.getAllCommunityItemForCommunity(
-      communityDAO
-    );
-    for (CommunityItemDAO item : items) {
-      communityItemDeletionService.deleteCommunityItem(item);
-    }
+  public int purge(
+    String communityID,
+    CommunityPurgePhaseEnum phase,
+    int limit
+  ) {
+    return switch (phase) {
+      case COMMUNITY_ITEMS -> communityItemDeletionService.deleteAllInCommunity(
+        communityID,
+        limit
+      );
+      case MEMBERSHIPS -> userCommunityDeletionService.deleteAllMembersOfCommunity(
+        communityID,
+        limit
+      );
+      case COMMUNITY_REQUESTS -> communityRequestDeletionService.deleteRequestsForCommunity(
+        communityID,
+        limit
+      );
+      case GATHERING_ATTENDEES -> userGatheringRepository.deleteForCommunity(
+        communityID,
+        limit
+      );
+      case GATHERINGS -> gatheringRepository.deleteForCommunity(
+        communityID,
+        limit
+      );
+      case INVITES -> inviteDeletionService.deleteInvitesForCommunity(
+        communityID,
+        limit
+      );
+      case COMMUNITY -> deleteCommunity(communityID);
+      case DONE -> 0;
+    };
   }
 }
@@ -4,18 +4,23 @@ import no.delalt.back.model.dao.CommunityItemDAO;
 import no.delalt.back.model.dao.ItemDAO;
 import no.delalt.back.model.dao.UserCommunityDAO;
 import no.delalt.back.repository.CommunityItemRepository;
+import no.delalt.back.service.ItemFeedService;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
 public class CommunityItemDeletionService {
   private final CommunityItemRepository communityItemRepository;
+  private final ItemFeedService itemFeedService;
 
   public CommunityItemDeletionService(
-    CommunityItemRepository communityItemRepository
+    CommunityItemRepository communityItemRepository,
+    ItemFeedService itemFeedService
   ) {
     this.communityItemRepository = communityItemRepository;
+    this.itemFeedService = itemFeedService;
   }
 
   /**
@@ -43,6 +48,56 @@ public class CommunityItemDeletionService {
     communityItemRepository.deleteAll(communityItems);
   }
 
+  /**
+   * Removes up to the given number of items of a user from their communities.
+   *
+   * @param  userID  the ID of the user owning the items
+   * @param  limit   the maximum number of community items to delete
+   * @return         the number of community items deleted
+   */
+  public int deleteAllWithItemsOfUser(String userID, int limit) {
+    return communityItemRepository.deleteForItemOwner(userID, limit);
+  }
+
+  /**
+   * Removes up to the given number of items from a community, and updates the feeds of the items.
+   *
+   * @param  communityID  the ID of the community
+   * @param  limit        the maximum number of community items to delete
+   * @return              the number of community items deleted
+   */
+  public int deleteAllInCommunity(String communityID, int limit) {
+    List<String> itemIDs = communityItemRepository.findItemIDsByCommunityID(
+      communityID,
+      limit
+    );
+    if (itemIDs.isEmpty()) {
+      return 0;
+    }
+    communityItemRepository.deleteByCommunityIDAndItemIDIn(
+      communityID,
+      itemIDs
+    );
+    itemFeedService.refreshItems(itemIDs);
+    return itemIDs.size();
+  }
+
+  /**
+   * Removes an item from the given communities with a single delete statement.
+   *
+   * @param  item          the item to remove from the communities
+   * @param  communityIDs  the IDs of the communities to remove the item from
+   */
+  public void deleteItemFromCommunities(
+    ItemDAO item,
+    Collection<String> communityIDs
+  ) {
+    if (communityIDs.isEmpty()) {
+      return;
+    }
+    communityItemRepository.deleteByItemAndCommunityIDIn(item, communityIDs);
+  }
+
   /**
    * Deletes a community item from the database.
    *
@@ -7,8 +7,6 @@ import no.delalt.back.repository.CommunityRequestRepository;
 import no.delalt.back.service.retrieval.CommunityRequestRetrievalService;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class CommunityRequestDeletionService {
   private final CommunityRequestRepository communityRequestRepository;
@@ -23,15 +21,25 @@ public class CommunityRequestDeletionService {
   }
 
   /**
-   * Deletes all the requests associated with a particular user.
+   * Deletes up to the given number of requests associated with a particular user.
    *
-   * @param  userDAO  the user DAO object representing the user
+   * @param  userID  the ID of the user
+   * @param  limit   the maximum number of requests to delete
+   * @return         the number of requests deleted
    */
-  public void deleteRequestsForUser(UserDAO userDAO) {
-    List<CommunityRequestDAO> requests = communityRequestRepository.findAllByUser(
-      userDAO
-    );
-    communityRequestRepository.deleteAll(requests);
+  public int deleteRequestsForUser(String userID, int limit) {
+    return communityRequestRepository.deleteForUser(userID, limit);
+  }
+
+  /**
+   * Deletes up to the given number of requests to join a particular community.
+   *
+   * @param  communityID  the ID of the community
+   * @param  limit        the maximum number of requests to delete
+   * @return              the number of requests deleted
+   */
+  public int deleteRequestsForCommunity(String communityID, int limit) {
+    return communityRequestRepository.deleteForCommunity(communityID, limit);
   }
 
   /**
@@ -1,20 +1,45 @@
 package no.delalt.back.service.deletion;
 
+import no.delalt.back.cache.ImageCache;
 import no.delalt.back.model.dao.ImageDAO;
-import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.repository.ImageRepository;
+import no.delalt.back.storage.ImageStore;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ImageDeletionService {
   private final ImageRepository imageRepository;
+  private final ImageStore imageStore;
+  private final ImageCache imageCache;
+  private final TransactionTemplate cleanupTransactionTemplate;
 
-  public ImageDeletionService(ImageRepository imageRepository) {
+  public ImageDeletionService(
+    ImageRepository imageRepository,
+    ImageStore imageStore,
+    ImageCache imageCache,
+    PlatformTransactionManager transactionManager
+  ) {
     this.imageRepository = imageRepository;
+    this.imageStore = imageStore;
+    this.imageCache = imageCache;
+    this.cleanupTransactionTemplate =
+      new TransactionTemplate(transactionManager);
+    this.cleanupTransactionTemplate.setPropagationBehavior(
+      TransactionDefinition.PROPAGATION_REQUIRES_NEW
+    );
   }
 
   /**
@@ -29,11 +54,113 @@ public class ImageDeletionService {
         () ->
           new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found")
       );
+    delete(image);
+  }
+
+  /**
+   * Deletes an image from the repository if it still exists.
+   *
+   * @param  imageID  the ID of the image to be deleted
+   */
+  public void deleteImageIfExists(String imageID) {
+    imageRepository.findById(imageID).ifPresent(this::delete);
+  }
+
+  /**
+   * Deletes up to the given number of images uploaded by a user.
+   *
+   * @param  userID  the ID of the user
+   * @param  limit   the maximum number of images to delete
+   * @return         the number of images deleted
+   */
+  public int deleteImagesForUser(String userID, int limit) {
+    List<ImageDAO> images = imageRepository.findAllByUserID(
+      userID,
+      PageRequest.of(0, limit)
+    );
+    if (images.isEmpty()) {
+      return 0;
+    }
+    Set<String> imageIDs = images
+      .stream()
+      .map(ImageDAO::getImageID)
+      .collect(Collectors.toSet());
+    imageRepository.deleteAllByIdInBatch(imageIDs);
+    deleteUnreferencedContent(
+      imageIDs,
+      images
+        .stream()
+        .map(ImageDAO::getContentHash)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet())
+    );
+    return images.size();
+  }
+
+  /**
+   * Deletes an image and schedules the removal of its content.
+   *
+   * @param  image  the image to be deleted
+   */
+  private void delete(ImageDAO image) {
     imageRepository.delete(image);
+    deleteUnreferencedContent(
+      Set.of(image.getImageID()),
+      image.getContentHash() != null
+        ? Set.of(image.getContentHash())
+        : Set.of()
+    );
+  }
+
+  /**
+   * Deletes content from the image store once no image references it anymore.
+   * Identical uploads share content, so the store is only cleaned up after the
+   * transaction deleting the metadata has committed. The deleted images are
+   * removed from the image cache at the same point, so a concurrent request can
+   * not cache them again before the deletion is visible.
+   *
+   * @param  imageIDs       the IDs of the deleted images
+   * @param  contentHashes  the content hashes of the deleted images
+   */
+  private void deleteUnreferencedContent(
+    Set<String> imageIDs,
+    Set<String> contentHashes
+  ) {
+    imageCache.invalidateMetadata(imageIDs);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      removeContentIfUnreferenced(contentHashes);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          imageCache.invalidateMetadata(imageIDs);
+          removeContentIfUnreferenced(contentHashes);
+        }
+      }
+    );
   }
 
-  public void deleteImagesForUser(UserDAO userDAO) {
-    List<ImageDAO> images = imageRepository.findAllByUser(userDAO);
-    imageRepository.deleteAll(images);
+  /**
+   * Removes each content hash from the image store if no image references it.
+   * Every content hash is checked and removed in its own transaction holding the lock
+   * on the hash, which an upload of the same content holds until it commits. The
+   * content is therefore never removed under an upload that is about to reference it.
+   *
+   * @param  contentHashes  the content hashes to check
+   */
+  private void removeContentIfUnreferenced(Set<String> contentHashes) {
+    for (String contentHash : contentHashes) {
+      cleanupTransactionTemplate.executeWithoutResult(
+        status -> {
+          imageRepository.lockContentHash(contentHash);
+          if (!imageRepository.existsByContentHash(contentHash)) {
+            imageCache.invalidateContent(contentHash);
+            imageStore.delete(contentHash);
+          }
+        }
+      );
+    }
   }
 }
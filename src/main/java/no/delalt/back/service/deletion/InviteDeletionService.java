@@ -1,12 +1,8 @@
 package no.delalt.back.service.deletion;
 
-import no.delalt.back.model.dao.InviteDAO;
-import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.repository.InviteRepository;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class InviteDeletionService {
   private final InviteRepository inviteRepository;
@@ -15,12 +11,11 @@ public class InviteDeletionService {
     this.inviteRepository = inviteRepository;
   }
 
-  public void deleteInvitesByUser(UserDAO userDAO) {
-    List<InviteDAO> inviteDAOList = inviteRepository.findAllByUser(userDAO);
+  public int deleteInvitesByUser(String userID, int limit) {
+    return inviteRepository.expireForUser(userID, limit);
+  }
 
-    for (InviteDAO inviteDAO : inviteDAOList) {
-      inviteDAO.setIsExpired(true);
-    }
-    inviteRepository.saveAll(inviteDAOList);
+  public int deleteInvitesForCommunity(String communityID, int limit) {
+    return inviteRepository.deleteForCommunity(communityID, limit);
   }
 }
@@ -1,32 +1,33 @@
 package no.delalt.back.service.deletion;
 
 import no.delalt.back.model.dao.ItemDAO;
-import no.delalt.back.model.dao.UserDAO;
-import no.delalt.back.service.retrieval.ItemRetrievalService;
+import no.delalt.back.repository.ItemRepository;
+import no.delalt.back.service.ItemFeedService;
 import no.delalt.back.service.save.ItemSaveService;
 import no.delalt.back.service.validation.ItemValidationService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-
 @Service
 public class ItemDeletionService {
   private final ItemValidationService itemValidationService;
   private final ItemSaveService itemSaveService;
-  private final ItemRetrievalService itemRetrievalService;
+  private final ItemRepository itemRepository;
   private final CommunityItemDeletionService communityItemDeletionService;
+  private final ItemFeedService itemFeedService;
 
   public ItemDeletionService(
     ItemValidationService itemValidationService,
     ItemSaveService itemSaveService,
-    ItemRetrievalService itemRetrievalService,
-    CommunityItemDeletionService communityItemDeletionService
+    ItemRepository itemRepository,
+    CommunityItemDeletionService communityItemDeletionService,
+    ItemFeedService itemFeedService
   ) {
     this.itemValidationService = itemValidationService;
     this.itemSaveService = itemSaveService;
-    this.itemRetrievalService = itemRetrievalService;
+    this.itemRepository = itemRepository;
     this.communityItemDeletionService = communityItemDeletionService;
+    this.itemFeedService = itemFeedService;
   }
 
   //TODO Decide what has to be done with borrows and requests when an item is deleted
@@ -46,21 +47,18 @@ public class ItemDeletionService {
     item.setIsDeleted(true);
 
     itemSaveService.saveItem(item);
+    itemFeedService.refreshItem(itemID);
   }
 
   /**
-   * Deletes all items for a given user.
+   * Marks up to the given number of items of a user as deleted and clears their images.
+   * The items must have been removed from their communities first.
    *
-   * @param  userDAO  the UserDAO object representing the user
+   * @param  userID  the ID of the user
+   * @param  limit   the maximum number of items to update
+   * @return         the number of items updated
    */
-  public void deleteItemsForUser(UserDAO userDAO) {
-    List<ItemDAO> items = itemRetrievalService.getAllOfUsersItems(userDAO);
-    for (ItemDAO item : items) {
-      communityItemDeletionService.deleteAllWithItem(item);
-
-      item.setImage(null);
-      item.setIsDeleted(true);
-    }
-    itemSaveService.saveAll(items);
+  public int deleteItemsForUser(String userID, int limit) {
+    return itemRepository.softDeleteForUser(userID, limit);
   }
 }
@@ -1,23 +1,28 @@
 package no.delalt.back.service.deletion;
 
+import no.delalt.back.cache.MembershipCache;
 import no.delalt.back.model.dao.UserCommunityDAO;
-import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.repository.UserCommunityRepository;
+import no.delalt.back.service.ItemFeedService;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class UserCommunityDeletionService {
   private final UserCommunityRepository userCommunityRepository;
   private final CommunityItemDeletionService communityItemDeletionService;
+  private final ItemFeedService itemFeedService;
+  private final MembershipCache membershipCache;
 
   public UserCommunityDeletionService(
     UserCommunityRepository userCommunityRepository,
-    CommunityItemDeletionService communityItemDeletionService
+    CommunityItemDeletionService communityItemDeletionService,
+    ItemFeedService itemFeedService,
+    MembershipCache membershipCache
   ) {
     this.userCommunityRepository = userCommunityRepository;
     this.communityItemDeletionService = communityItemDeletionService;
+    this.itemFeedService = itemFeedService;
+    this.membershipCache = membershipCache;
   }
 
   /**
@@ -29,24 +34,36 @@ public class UserCommunityDeletionService {
     communityItemDeletionService.removeUserItemsFromCommunity(ucd);
 
     userCommunityRepository.delete(ucd);
+    membershipCache.invalidate(ucd.getUser().getUserID());
+    itemFeedService.refreshUser(ucd.getUser().getUserID());
   }
 
   /**
-   * Removes all items in communities and deletes a user from all groups.
+   * Deletes up to the given number of memberships of a community.
+   * The items must have been removed from the community first.
    *
-   * @param  user  the UserDAO representing the user to be deleted
+   * @param  communityID  the ID of the community
+   * @param  limit        the maximum number of memberships to delete
+   * @return              the number of memberships deleted
    */
-  public void deleteUserFromAllGroups(UserDAO user) {
-    List<UserCommunityDAO> communities = userCommunityRepository.findAllByUser(
-      user
-    );
-
-    for (UserCommunityDAO ucd : communities) {
-      communityItemDeletionService.removeUserItemsFromCommunity(ucd);
-    }
+  public int deleteAllMembersOfCommunity(String communityID, int limit) {
+    return userCommunityRepository.deleteForCommunity(communityID, limit);
+  }
 
+  /**
+   * Deletes up to the given number of memberships of a user.
+   * The items of the user must have been removed from the communities first.
+   *
+   * @param  userID  the ID of the user
+   * @param  limit   the maximum number of memberships to delete
+   * @return         the number of memberships deleted
+   */
+  public int deleteUserFromAllGroups(String userID, int limit) {
     //TODO Check if they are the only member or if they are the only admin
 
-    userCommunityRepository.deleteAll(communities);
+    int deleted = userCommunityRepository.deleteForUser(userID, limit);
+    membershipCache.invalidate(userID);
+    itemFeedService.refreshUser(userID);
+    return deleted;
   }
 }
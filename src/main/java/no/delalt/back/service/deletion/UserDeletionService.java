@@ -1,10 +1,15 @@
 package no.delalt.back.service.deletion;
 
+import no.delalt.back.cache.UserSnapshotCache;
+import no.delalt.back.model.dao.AccountPurgeDAO;
 import no.delalt.back.model.dao.UserDAO;
+import no.delalt.back.model.enums.AccountPurgePhaseEnum;
+import no.delalt.back.model.enums.PurgePhase;
+import no.delalt.back.repository.AccountPurgeRepository;
 import no.delalt.back.repository.UserRepository;
-import no.delalt.back.service.validation.UserValidationService;
+import no.delalt.back.service.CurrentUser;
 import no.delalt.back.service.worker.AuthWorkerSevice;
-import no.delalt.back.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,7 +18,8 @@ import java.time.LocalDate;
 @Service
 public class UserDeletionService {
   private final UserRepository userRepository;
-  private final UserValidationService userValidationService;
+  private final AccountPurgeRepository accountPurgeRepository;
+  private final CommunityItemDeletionService communityItemDeletionService;
   private final UserCommunityDeletionService userCommunityDeletionService;
   private final CommunityRequestDeletionService communityRequestDeletionService;
   private final ItemDeletionService itemDeletionService;
@@ -25,10 +31,14 @@ public class UserDeletionService {
   private final BorrowAgreementDeletionService borrowAgreementDeletionService;
 
   private final static int RESET_YEAR = 2000;
+  private final CurrentUser currentUser;
+  private final UserSnapshotCache userSnapshotCache;
+  private final boolean asyncDeletion;
 
   public UserDeletionService(
     UserRepository userRepository,
-    UserValidationService userValidationService,
+    AccountPurgeRepository accountPurgeRepository,
+    CommunityItemDeletionService communityItemDeletionService,
     UserCommunityDeletionService userCommunityDeletionService,
     CommunityRequestDeletionService communityRequestDeletionService,
     ItemDeletionService itemDeletionService,
@@ -37,10 +47,14 @@ public class UserDeletionService {
     ImageDeletionService imageDeletionService,
     BorrowRequestDeletionService borrowRequestDeletionService,
     RatingDeletionService ratingDeletionService,
-    BorrowAgreementDeletionService borrowAgreementDeletionService
+    BorrowAgreementDeletionService borrowAgreementDeletionService,
+    CurrentUser currentUser,
+    UserSnapshotCache userSnapshotCache,
+    @Value("${user.deletion.async:false}") boolean asyncDeletion
   ) {
     this.userRepository = userRepository;
-    this.userValidationService = userValidationService;
+    this.accountPurgeRepository = accountPurgeRepository;
+    this.communityItemDeletionService = communityItemDeletionService;
     this.userCommunityDeletionService = userCommunityDeletionService;
     this.communityRequestDeletionService = communityRequestDeletionService;
     this.itemDeletionService = itemDeletionService;
@@ -50,50 +64,94 @@ public class UserDeletionService {
     this.borrowRequestDeletionService = borrowRequestDeletionService;
     this.ratingDeletionService = ratingDeletionService;
     this.borrowAgreementDeletionService = borrowAgreementDeletionService;
+    this.currentUser = currentUser;
+    this.userSnapshotCache = userSnapshotCache;
+    this.asyncDeletion = asyncDeletion;
   }
 
   /**
    * Deletes a user and all associated data.
+   * The data is deleted with one statement per table, in an order where rows are deleted
+   * before the rows they reference. When asynchronous deletion is enabled, the user is
+   * only anonymized here, which also prevents the user from logging in, and the data is
+   * purged in chunks by the account purge worker.
    *
    */
   @Transactional
   public void deleteUserAndAssociatedData() {
-    String userID = SecurityUtil.getAuthenticatedAccountID();
-
-    UserDAO userDAO = userValidationService.validateUserExistsAndReturn(userID);
-
-    //Deletes all items and removes them from all communities
-    itemDeletionService.deleteItemsForUser(userDAO);
-
-    //Deletes user from all communities
-    userCommunityDeletionService.deleteUserFromAllGroups(userDAO);
-
-    //Deletes community requests
-    communityRequestDeletionService.deleteRequestsForUser(userDAO);
-
-    //Deletes invites
-    inviteDeletionService.deleteInvitesByUser(userDAO);
-
-    //Deletes images
-    //TODO Check that none of the images are used in a community, if so set to null
-    imageDeletionService.deleteImagesForUser(userDAO);
-
-    //Delete borrow requests
-    borrowRequestDeletionService.deleteUnprocessedRequestsForUser(userDAO);
-    borrowRequestDeletionService.deleteProcessedButNotAcceptedRequestsForUser(
-      userDAO
-    );
-    borrowRequestDeletionService.deleteProcessedAcceptedForOwner(userDAO);
-
-    //Delete ratings
-    ratingDeletionService.deleteRatingsForOwner(userDAO);
-
-    //Delete borrow agreements
-    borrowAgreementDeletionService.deleteBorrowAgreementsForOwner(userDAO);
+    UserDAO userDAO = currentUser.getUserDAO();
+
+    if (asyncDeletion) {
+      clearUserInfo(userDAO);
+      accountPurgeRepository.save(
+        new AccountPurgeDAO(
+          userDAO.getUserID(),
+          AccountPurgePhaseEnum.COMMUNITY_ITEMS.getValue(),
+          System.currentTimeMillis()
+        )
+      );
+      return;
+    }
+
+    for (
+      AccountPurgePhaseEnum phase = AccountPurgePhaseEnum.COMMUNITY_ITEMS;
+      phase != AccountPurgePhaseEnum.DONE;
+      phase = PurgePhase.next(phase)
+    ) {
+      purge(userDAO.getUserID(), phase, Integer.MAX_VALUE);
+    }
 
     clearUserInfo(userDAO);
   }
 
+  /**
+   * Deletes up to the given number of rows of one phase of the data of a user.
+   * A phase is finished once fewer rows than the limit are deleted.
+   *
+   * @param  userID  the ID of the user
+   * @param  phase   the phase to delete the data of
+   * @param  limit   the maximum number of rows to delete
+   * @return         the number of rows deleted
+   */
+  public int purge(String userID, AccountPurgePhaseEnum phase, int limit) {
+    return switch (phase) {
+      //Removes all items from all communities
+      case COMMUNITY_ITEMS -> communityItemDeletionService.deleteAllWithItemsOfUser(
+        userID,
+        limit
+      );
+      //Deletes all items
+      case ITEMS -> itemDeletionService.deleteItemsForUser(userID, limit);
+      //Deletes user from all communities
+      case MEMBERSHIPS -> userCommunityDeletionService.deleteUserFromAllGroups(
+        userID,
+        limit
+      );
+      case COMMUNITY_REQUESTS -> communityRequestDeletionService.deleteRequestsForUser(
+        userID,
+        limit
+      );
+      //Expires invites
+      case INVITES -> inviteDeletionService.deleteInvitesByUser(userID, limit);
+      //TODO Check that none of the images are used in a community, if so set to null
+      case IMAGES -> imageDeletionService.deleteImagesForUser(userID, limit);
+      //Deletes the ratings of the user, and the ratings of the borrow agreements of the user
+      case RATINGS -> ratingDeletionService.deleteRatingsForOwner(
+        userID,
+        limit
+      );
+      case BORROW_AGREEMENTS -> borrowAgreementDeletionService.deleteBorrowAgreementsForOwner(
+        userID,
+        limit
+      );
+      case BORROW_REQUESTS -> borrowRequestDeletionService.deleteRequestsForUser(
+        userID,
+        limit
+      );
+      case DONE -> 0;
+    };
+  }
+
   /**
    * Clears the user information by setting the first name to "Deleted",
    * the last name to "User: " followed by the user ID, the image to null,
@@ -112,5 +170,6 @@ public class UserDeletionService {
     userDAO.setDeletedAt(LocalDate.now());
 
     userRepository.save(userDAO);
+    userSnapshotCache.invalidate(userDAO.getUserID());
   }
 }
@@ -56,11 +56,7 @@ public class CommunityItemRetrievalService {
    * @return       a list of community item IDs associated with the item
    */
   public List<String> getCommunityItemIDsByItemID(ItemDAO item) {
-    return communityItemRepository
-      .findAllByItem(item)
-      .stream()
-      .map(communityItem -> communityItem.getCommunity().getCommunityID())
-      .toList();
+    return communityItemRepository.findCommunityIDsByItem(item);
   }
 
   /**
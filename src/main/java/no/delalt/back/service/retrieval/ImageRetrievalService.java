@@ -1,18 +1,45 @@
 package no.delalt.back.service.retrieval;
 
+import no.delalt.back.cache.ImageCache;
 import no.delalt.back.model.dao.ImageDAO;
+import no.delalt.back.model.enums.ImageSizeEnum;
+import no.delalt.back.model.object.ImageMetadata;
+import no.delalt.back.model.object.ImageRepresentation;
 import no.delalt.back.repository.ImageRepository;
+import no.delalt.back.service.worker.ImageVariantWorkerService;
+import no.delalt.back.storage.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @Service
 public class ImageRetrievalService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    ImageRetrievalService.class
+  );
   private final ImageRepository imageRepository;
+  private final ImageStore imageStore;
+  private final ImageVariantWorkerService imageVariantWorkerService;
+  private final ImageCache imageCache;
 
-  public ImageRetrievalService(ImageRepository imageRepository) {
+  public ImageRetrievalService(
+    ImageRepository imageRepository,
+    ImageStore imageStore,
+    ImageVariantWorkerService imageVariantWorkerService,
+    ImageCache imageCache
+  ) {
     this.imageRepository = imageRepository;
+    this.imageStore = imageStore;
+    this.imageVariantWorkerService = imageVariantWorkerService;
+    this.imageCache = imageCache;
   }
 
   /**
@@ -30,4 +57,98 @@ public class ImageRetrievalService {
           new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found")
       );
   }
+
+  /**
+   * Retrieves the metadata of an image without loading its owner or content.
+   * Images never change, so the metadata is served from the image cache until
+   * the image is deleted.
+   *
+   * @param  imageID  the ID of the image
+   * @return          the metadata of the image
+   * @throws ResponseStatusException if the image does not exist
+   */
+  @Transactional(readOnly = true)
+  public ImageMetadata getImageMetadata(String imageID)
+    throws ResponseStatusException {
+    ImageMetadata cached = imageCache.getMetadata(imageID);
+    if (cached != null) {
+      return cached;
+    }
+
+    ImageMetadata metadata = imageRepository
+      .findMetadataByImageID(imageID)
+      .orElseThrow(
+        () ->
+          new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found")
+      );
+    if (metadata.contentHash() == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found");
+    }
+    imageCache.putMetadata(imageID, metadata);
+    return metadata;
+  }
+
+  /**
+   * Resolves which representation of an image should be served for a requested size.
+   * The nearest variant at least as large as the requested size is chosen. If that
+   * variant has not been generated yet, the original is served as a fallback and
+   * generation is scheduled.
+   *
+   * @param  metadata  the metadata of the image
+   * @param  size      the requested length of the longest side in pixels, or null for the original
+   * @return           the representation to serve
+   */
+  public ImageRepresentation resolveRepresentation(
+    ImageMetadata metadata,
+    Integer size
+  ) {
+    ImageSizeEnum variant = size == null ? null : ImageSizeEnum.nearest(size);
+    if (variant == null) {
+      return new ImageRepresentation(metadata, null, false);
+    }
+    if (imageStore.variantExists(metadata.contentHash(), variant.getValue())) {
+      return new ImageRepresentation(metadata, variant, false);
+    }
+
+    imageVariantWorkerService.generateVariantsAsync(metadata.contentHash());
+    return new ImageRepresentation(metadata, null, true);
+  }
+
+  /**
+   * Retrieves the content of an image representation.
+   * Small representations, such as thumbnails, are served from the image cache,
+   * while larger ones are streamed from the image store.
+   *
+   * @param  representation  the representation of the image
+   * @return                 a resource with the content of the representation
+   * @throws ResponseStatusException if the content of the image is missing
+   */
+  public Resource getImageContent(ImageRepresentation representation)
+    throws ResponseStatusException {
+    String contentHash = representation.metadata().contentHash();
+    ImageSizeEnum size = representation.size();
+
+    byte[] cached = imageCache.getContent(contentHash, size);
+    if (cached != null) {
+      return new ByteArrayResource(cached);
+    }
+
+    Resource resource = size == null
+      ? imageStore.load(contentHash)
+      : imageStore.loadVariant(contentHash, size.getValue());
+    try {
+      if (!imageCache.admits(resource.contentLength())) {
+        return resource;
+      }
+      byte[] content;
+      try (InputStream inputStream = resource.getInputStream()) {
+        content = inputStream.readAllBytes();
+      }
+      imageCache.putContent(contentHash, size, content);
+      return new ByteArrayResource(content);
+    } catch (IOException e) {
+      LOGGER.warn("Failed to cache image " + contentHash, e);
+      return resource;
+    }
+  }
 }
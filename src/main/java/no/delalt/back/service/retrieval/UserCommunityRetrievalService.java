@@ -38,7 +38,7 @@ public class UserCommunityRetrievalService {
    */
   public List<CommunityDAO> getCommunitiesForUser(UserDAO user) {
     return userCommunityRepository
-      .findAllByUser(user)
+      .findAllByUserAndCommunity_DeletedAtIsNull(user)
       .stream()
       .map(UserCommunityDAO::getCommunity)
       .toList();
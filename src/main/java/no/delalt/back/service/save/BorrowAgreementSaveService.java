@@ -1,25 +1,68 @@
 package no.delalt.back.service.save;
 
+import no.delalt.back.cache.ItemAvailabilityCache;
 import no.delalt.back.model.dao.BorrowAgreementDAO;
 import no.delalt.back.repository.BorrowAgreementRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.SQLException;
 
 @Service
 public class BorrowAgreementSaveService {
+  private static final String EXCLUSION_VIOLATION_SQL_STATE = "23P01";
   private final BorrowAgreementRepository borrowAgreementRepository;
+  private final ItemAvailabilityCache itemAvailabilityCache;
 
   public BorrowAgreementSaveService(
-    BorrowAgreementRepository borrowAgreementRepository
+    BorrowAgreementRepository borrowAgreementRepository,
+    ItemAvailabilityCache itemAvailabilityCache
   ) {
     this.borrowAgreementRepository = borrowAgreementRepository;
+    this.itemAvailabilityCache = itemAvailabilityCache;
   }
 
   /**
    * Saves the given `BorrowAgreementDAO` object to the database.
+   * The agreement is flushed at once, so that an overlap with another agreement for the item,
+   * rejected by the exclusion constraint on the period, is reported as a conflict.
    *
    * @param  borrowAgreementDAO  the `BorrowAgreementDAO` object to be saved
+   * @throws ResponseStatusException if the agreement overlaps another agreement for the item
+   */
+  public void saveAgreement(BorrowAgreementDAO borrowAgreementDAO)
+    throws ResponseStatusException {
+    try {
+      borrowAgreementRepository.saveAndFlush(borrowAgreementDAO);
+    } catch (DataIntegrityViolationException e) {
+      if (isExclusionViolation(e)) {
+        throw new ResponseStatusException(
+          HttpStatus.CONFLICT,
+          "A borrow already exists for this item in the timeframe."
+        );
+      }
+      throw e;
+    }
+    itemAvailabilityCache.invalidate(borrowAgreementDAO.getItem().getItemID());
+  }
+
+  /**
+   * Checks if the cause of an exception is a violation of an exclusion constraint.
+   *
+   * @param  exception  the exception to check
+   * @return            true if an exclusion constraint was violated, false otherwise
    */
-  public void saveAgreement(BorrowAgreementDAO borrowAgreementDAO) {
-    borrowAgreementRepository.save(borrowAgreementDAO);
+  private static boolean isExclusionViolation(Throwable exception) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (
+        cause instanceof SQLException sqlException &&
+        EXCLUSION_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())
+      ) {
+        return true;
+      }
+    }
+    return false;
   }
 }
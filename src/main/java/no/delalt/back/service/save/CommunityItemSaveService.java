@@ -1,19 +1,25 @@
 package no.delalt.back.service.save;
 
+import jakarta.persistence.EntityManager;
 import no.delalt.back.model.dao.CommunityDAO;
 import no.delalt.back.model.dao.CommunityItemDAO;
 import no.delalt.back.model.dao.ItemDAO;
 import no.delalt.back.repository.CommunityItemRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 @Service
 public class CommunityItemSaveService {
   private final CommunityItemRepository communityItemRepository;
+  private final EntityManager entityManager;
 
   public CommunityItemSaveService(
-    CommunityItemRepository communityItemRepository
+    CommunityItemRepository communityItemRepository,
+    EntityManager entityManager
   ) {
     this.communityItemRepository = communityItemRepository;
+    this.entityManager = entityManager;
   }
 
   /**
@@ -29,4 +35,31 @@ public class CommunityItemSaveService {
     );
     communityItemRepository.save(communityItemDAO);
   }
+
+  /**
+   * Adds an item to the given communities.
+   * The links are persisted with references instead of loaded communities, and
+   * are written as one JDBC batch when the transaction is flushed.
+   * The caller is responsible for validating the communities and that the item is not already in them.
+   *
+   * @param  itemDAO       the item to add to the communities
+   * @param  communityIDs  the IDs of the communities to add the item to
+   */
+  public void saveCommunityItems(
+    ItemDAO itemDAO,
+    Collection<String> communityIDs
+  ) {
+    ItemDAO itemReference = entityManager.getReference(
+      ItemDAO.class,
+      itemDAO.getItemID()
+    );
+    for (String communityID : communityIDs) {
+      entityManager.persist(
+        new CommunityItemDAO(
+          entityManager.getReference(CommunityDAO.class, communityID),
+          itemReference
+        )
+      );
+    }
+  }
 }
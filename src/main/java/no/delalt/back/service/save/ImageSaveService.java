@@ -3,31 +3,43 @@ package no.delalt.back.service.save;
 import no.delalt.back.model.dao.ImageDAO;
 import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.repository.ImageRepository;
-import no.delalt.back.service.validation.UserValidationService;
+import no.delalt.back.service.CurrentUser;
+import no.delalt.back.service.worker.ImageVariantWorkerService;
+import no.delalt.back.storage.ImageStore;
 import no.delalt.back.util.NanoIdGenerator;
-import no.delalt.back.util.SecurityUtil;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class ImageSaveService {
   private final ImageRepository imageRepository;
-  private final UserValidationService userValidationService;
+  private final ImageStore imageStore;
+  private final ImageVariantWorkerService imageVariantWorkerService;
+  private final CurrentUser currentUser;
   private final static int MINIMUM_SIZE = 500;
   private final static int MAXIMUM_SIZE = 1000000;
 
   public ImageSaveService(
     ImageRepository imageRepository,
-    UserValidationService userValidationService
+    ImageStore imageStore,
+    ImageVariantWorkerService imageVariantWorkerService,
+    CurrentUser currentUser
   ) {
     this.imageRepository = imageRepository;
-    this.userValidationService = userValidationService;
+    this.imageStore = imageStore;
+    this.imageVariantWorkerService = imageVariantWorkerService;
+    this.currentUser = currentUser;
   }
 
   /**
-   * Adds an image to the database.
+   * Adds an image to the image store and its metadata to the database.
+   * Size variants of the image are generated in the background once the upload is committed.
+   * The content hash stays locked until the upload commits, and the content is stored
+   * again if the removal of an earlier, unreferenced copy deleted it in the meantime.
    *
    * @param  image  the byte array of the image to be added
    * @return        the ID of the saved image
@@ -42,14 +54,40 @@ public class ImageSaveService {
       );
     }
 
-    UserDAO user = userValidationService.validateUserExistsAndReturn(
-      SecurityUtil.getAuthenticatedAccountID()
-    );
+    UserDAO user = currentUser.getUserDAO();
     String uniqueID = NanoIdGenerator.generateNanoID();
+    String contentHash = imageStore.store(image);
+    imageRepository.lockContentHash(contentHash);
+    if (!imageStore.exists(contentHash)) {
+      imageStore.store(image);
+    }
 
-    ImageDAO imageDAO = new ImageDAO(uniqueID, image, user);
+    ImageDAO imageDAO = new ImageDAO(
+      uniqueID,
+      contentHash,
+      (long) image.length,
+      System.currentTimeMillis(),
+      user
+    );
 
     imageRepository.save(imageDAO);
+    scheduleVariantGeneration(contentHash);
     return uniqueID;
   }
+
+  /**
+   * Schedules generation of the size variants after the current transaction commits.
+   *
+   * @param  contentHash  the content hash of the uploaded image
+   */
+  private void scheduleVariantGeneration(String contentHash) {
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          imageVariantWorkerService.generateVariantsAsync(contentHash);
+        }
+      }
+    );
+  }
 }
@@ -15,20 +15,27 @@ public class ItemSaveService {
   }
 
   /**
-   * Saves the given `ItemDAO` object to the database.
+   * Saves the given `ItemDAO` object to the database, and updates its search vector.
    *
    * @param  itemDAO  the `ItemDAO` object to be saved
    */
   public void saveItem(ItemDAO itemDAO) {
     itemRepository.save(itemDAO);
+    itemRepository.updateSearchVectors(List.of(itemDAO.getItemID()));
   }
 
   /**
-   * Saves a list of `ItemDAO` objects to the database.
+   * Saves a list of `ItemDAO` objects to the database, and updates their search vectors.
    *
    * @param  list  the list of `ItemDAO` objects to be saved
    */
   public void saveAll(List<ItemDAO> list) {
+    if (list.isEmpty()) {
+      return;
+    }
     itemRepository.saveAll(list);
+    itemRepository.updateSearchVectors(
+      list.stream().map(ItemDAO::getItemID).toList()
+    );
   }
 }
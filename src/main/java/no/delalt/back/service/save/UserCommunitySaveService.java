@@ -1,9 +1,11 @@
 package no.delalt.back.service.save;
 
+import no.delalt.back.cache.MembershipCache;
 import no.delalt.back.model.dao.CommunityDAO;
 import no.delalt.back.model.dao.UserCommunityDAO;
 import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.repository.UserCommunityRepository;
+import no.delalt.back.service.ItemFeedService;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -11,11 +13,17 @@ import org.springframework.web.server.ResponseStatusException;
 @Service
 public class UserCommunitySaveService {
   private final UserCommunityRepository userCommunityRepository;
+  private final ItemFeedService itemFeedService;
+  private final MembershipCache membershipCache;
 
   public UserCommunitySaveService(
-    UserCommunityRepository userCommunityRepository
+    UserCommunityRepository userCommunityRepository,
+    ItemFeedService itemFeedService,
+    MembershipCache membershipCache
   ) {
     this.userCommunityRepository = userCommunityRepository;
+    this.itemFeedService = itemFeedService;
+    this.membershipCache = membershipCache;
   }
 
   /**
@@ -31,6 +39,8 @@ public class UserCommunitySaveService {
       userCommunityRepository.save(
         new UserCommunityDAO(communityDAO, user, false)
       );
+      membershipCache.invalidate(user.getUserID());
+      itemFeedService.refreshUser(user.getUserID());
     } catch (Exception e) {
       throw new ResponseStatusException(
         HttpStatus.INTERNAL_SERVER_ERROR,
@@ -54,5 +64,7 @@ public class UserCommunitySaveService {
     userCommunityRepository.save(
       new UserCommunityDAO(communityDAO, user, true)
     );
+    membershipCache.invalidate(user.getUserID());
+    itemFeedService.refreshUser(user.getUserID());
   }
 }
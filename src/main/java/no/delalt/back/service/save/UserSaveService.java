@@ -1,5 +1,6 @@
 package no.delalt.back.service.save;
 
+import no.delalt.back.cache.UserSnapshotCache;
 import no.delalt.back.model.dao.UserDAO;
 import no.delalt.back.repository.UserRepository;
 import org.springframework.stereotype.Service;
@@ -7,9 +8,14 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserSaveService {
   private final UserRepository userRepository;
+  private final UserSnapshotCache userSnapshotCache;
 
-  public UserSaveService(UserRepository userRepository) {
+  public UserSaveService(
+    UserRepository userRepository,
+    UserSnapshotCache userSnapshotCache
+  ) {
     this.userRepository = userRepository;
+    this.userSnapshotCache = userSnapshotCache;
   }
 
   /**
@@ -19,5 +25,6 @@ public class UserSaveService {
    */
   public void saveUser(UserDAO user) {
     userRepository.save(user);
+    userSnapshotCache.invalidate(user.getUserID());
   }
 }
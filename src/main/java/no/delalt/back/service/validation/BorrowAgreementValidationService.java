@@ -32,7 +32,7 @@ public class BorrowAgreementValidationService {
   ) {
     if (
       borrowAgreementRepository.existsByItemAndTimeframe(
-        item,
+        item.getItemID(),
         startDate,
         endDate
       )
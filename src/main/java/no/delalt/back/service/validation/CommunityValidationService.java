@@ -58,7 +58,9 @@ public class CommunityValidationService {
    * @throws ResponseStatusException if the community does not exist
    */
   public void validateCommunityExists(String communityID) {
-    if (!communityRepository.existsById(communityID)) {
+    if (
+      !communityRepository.existsByCommunityIDAndDeletedAtIsNull(communityID)
+    ) {
       throw new ResponseStatusException(
         HttpStatus.NOT_FOUND,
         "Community exists."
@@ -68,6 +70,7 @@ public class CommunityValidationService {
 
   /**
    * Finds a CommunityDAO object by the given community ID.
+   * Communities that are deleted, but not yet purged, are not found.
    *
    * @param  communityID  The ID of the community.
    * @return              The CommunityDAO object with the matching community ID.
@@ -77,6 +80,7 @@ public class CommunityValidationService {
     throws ResponseStatusException {
     return communityRepository
       .findById(communityID)
+      .filter(communityDAO -> communityDAO.getDeletedAt() == null)
       .orElseThrow(
         () ->
           new ResponseStatusException(
@@ -1,21 +1,32 @@
 package no.delalt.back.service.validation;
 
+import no.delalt.back.cache.MembershipCache;
 import no.delalt.back.model.dao.CommunityDAO;
-import no.delalt.back.model.id.UserCommunityID;
+import no.delalt.back.model.object.MembershipSnapshot;
+import no.delalt.back.repository.CommunityRepository;
 import no.delalt.back.repository.UserCommunityRepository;
 import no.delalt.back.util.SecurityUtil;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
+
 @Service
 public class UserCommunityValidationService {
   private final UserCommunityRepository userCommunityRepository;
+  private final CommunityRepository communityRepository;
+  private final MembershipCache membershipCache;
 
   public UserCommunityValidationService(
-    UserCommunityRepository userCommunityRepository
+    UserCommunityRepository userCommunityRepository,
+    CommunityRepository communityRepository,
+    MembershipCache membershipCache
   ) {
     this.userCommunityRepository = userCommunityRepository;
+    this.communityRepository = communityRepository;
+    this.membershipCache = membershipCache;
   }
 
   //TODO Change to validateCurrentUser
@@ -56,6 +67,41 @@ public class UserCommunityValidationService {
     }
   }
 
+  /**
+   * Validates if the current user is a member of all the specified communities.
+   * The memberships are loaded once, and the communities are only looked up when
+   * the user is not a member, since a membership implies that the community exists.
+   * A deleted community is not among the memberships, so no item is linked to it.
+   *
+   * @param  communityIDs  the IDs of the communities to check membership for
+   * @throws ResponseStatusException   if a community does not exist, or the user is not a member of it
+   */
+  public void validateCurrentUserIsMemberOfCommunities(
+    Collection<String> communityIDs
+  )
+    throws ResponseStatusException {
+    MembershipSnapshot memberships = getMemberships(
+      SecurityUtil.getAuthenticatedAccountID()
+    );
+    for (String communityID : communityIDs) {
+      if (memberships.isMember(communityID)) {
+        continue;
+      }
+      if (
+        !communityRepository.existsByCommunityIDAndDeletedAtIsNull(communityID)
+      ) {
+        throw new ResponseStatusException(
+          HttpStatus.NOT_FOUND,
+          "Community not found"
+        );
+      }
+      throw new ResponseStatusException(
+        HttpStatus.FORBIDDEN,
+        "User not in community"
+      );
+    }
+  }
+
   /**
    * Validates if the current user is not a member of the specified community.
    *
@@ -107,9 +153,7 @@ public class UserCommunityValidationService {
    * @return true if the user is a member of the community
    */
   public boolean checkUserInCommunity(String userID, String communityID) {
-    return userCommunityRepository.existsById(
-      new UserCommunityID(userID, communityID)
-    );
+    return getMemberships(userID).isMember(communityID);
   }
 
   /**
@@ -121,9 +165,36 @@ public class UserCommunityValidationService {
    * @return true if the user is an administrator of the community
    */
   private boolean userIsAdmin(String communityID, String userID) {
-    return userCommunityRepository.existsByUser_UserIDAndCommunity_CommunityIDAndIsAdministratorTrue(
-      userID,
-      communityID
+    return getMemberships(userID).isAdministrator(communityID);
+  }
+
+  /**
+   * Retrieves the memberships of a user. Reads use the membership cache, loading the
+   * memberships on a miss. Writes load them from the database, since the cache of every
+   * instance only learns about changes made on other instances once its entries expire.
+   *
+   * @param userID the ID of the user
+   * @return the memberships of the user
+   */
+  private MembershipSnapshot getMemberships(String userID) {
+    if (
+      TransactionSynchronizationManager.isActualTransactionActive() &&
+      !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+    ) {
+      return loadMemberships(userID);
+    }
+    return membershipCache.get(userID, this::loadMemberships);
+  }
+
+  /**
+   * Loads the memberships of a user in communities that are not deleted from the database.
+   *
+   * @param userID the ID of the user
+   * @return the memberships of the user
+   */
+  private MembershipSnapshot loadMemberships(String userID) {
+    return MembershipSnapshot.of(
+      userCommunityRepository.findMembershipsByUserID(userID)
     );
   }
 
@@ -0,0 +1,44 @@
+package no.delalt.back.service.worker;
+
+import no.delalt.back.model.dao.AccountPurgeDAO;
+import no.delalt.back.model.enums.AccountPurgePhaseEnum;
+import no.delalt.back.repository.AccountPurgeRepository;
+import no.delalt.back.service.deletion.UserDeletionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class AccountPurgeWorkerService {
+  private static final long PURGE_LOCK_KEY = 7_341_002L;
+  private final ChunkedPurgeRunner<AccountPurgePhaseEnum, AccountPurgeDAO> runner;
+
+  public AccountPurgeWorkerService(
+    AccountPurgeRepository accountPurgeRepository,
+    UserDeletionService userDeletionService,
+    TransactionTemplate transactionTemplate,
+    @Value("${user.deletion.chunk-size:1000}") int chunkSize
+  ) {
+    this.runner =
+      new ChunkedPurgeRunner<>(
+        "user",
+        accountPurgeRepository,
+        AccountPurgePhaseEnum.class,
+        userDeletionService::purge,
+        transactionTemplate,
+        PURGE_LOCK_KEY,
+        chunkSize
+      );
+  }
+
+  /**
+   * Purges the data of the deleted users whose purge is not done yet, oldest first.
+   *
+   * @Scheduled(fixedDelayString = "${user.deletion.purge-interval:PT10S}")
+   */
+  @Scheduled(fixedDelayString = "${user.deletion.purge-interval:PT10S}")
+  public void purgePending() {
+    runner.purgePending();
+  }
+}
@@ -0,0 +1,442 @@
+package no.delalt.back.service.worker;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PreDestroy;
+import no.delalt.back.model.dto.input.NewMessageDTO;
+import no.delalt.back.model.dto.output.ChatMessageDTO;
+import no.delalt.back.model.dto.output.ChatMessageEventDTO;
+import no.delalt.back.model.enums.ChatIngestAckEnum;
+import no.delalt.back.model.object.ChatMessageEvent;
+import no.delalt.back.model.object.ConversationParticipants;
+import no.delalt.back.repository.ConversationRepository;
+import no.delalt.back.service.CurrentUser;
+import no.delalt.back.util.SanitizationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class ChatIngestWorkerService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    ChatIngestWorkerService.class
+  );
+  private static final int MAX_TEXT_LENGTH = 255;
+  private static final String INSERT_MESSAGE_SQL =
+    "INSERT INTO public.chat_message (message_id, text, time_sent, sending_user_id, conversation_id) VALUES (?, ?, ?, ?, ?);";
+  private static final String UPDATE_LAST_MESSAGE_SQL =
+    "UPDATE public.conversation SET last_message_id = ? WHERE conversation_id = ? AND (last_message_id IS NULL OR last_message_id < ?);";
+  private static final String UPDATE_RECIPIENT_UNREAD_SQL =
+    "UPDATE public.user_conversation SET unread_count = unread_count + ? WHERE conversation_id = ? AND user_id <> ?;";
+  private static final String UPDATE_SENDER_READ_SQL =
+    "UPDATE public.user_conversation SET unread_count = 0, last_read_message_id = ? WHERE conversation_id = ? AND user_id = ?;";
+  private final ConversationRepository conversationRepository;
+  private final CurrentUser currentUser;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Cache<String, ConversationParticipants> participantsCache;
+  private final BlockingQueue<PendingMessage> queue;
+  private final boolean enabled;
+  private final int batchSize;
+  private final ChatIngestAckEnum ack;
+  private final Duration ackTimeout;
+  private final Thread flusher;
+  private volatile boolean running = true;
+
+  public ChatIngestWorkerService(
+    ConversationRepository conversationRepository,
+    CurrentUser currentUser,
+    JdbcTemplate jdbcTemplate,
+    TransactionTemplate transactionTemplate,
+    ApplicationEventPublisher eventPublisher,
+    @Value("${chat.ingest.batched:false}") boolean enabled,
+    @Value("${chat.ingest.queue-capacity:10000}") int queueCapacity,
+    @Value("${chat.ingest.batch-size:500}") int batchSize,
+    @Value("${chat.ingest.ack:COMMITTED}") ChatIngestAckEnum ack,
+    @Value("${chat.ingest.ack-timeout:PT5S}") Duration ackTimeout
+  ) {
+    this.conversationRepository = conversationRepository;
+    this.currentUser = currentUser;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.eventPublisher = eventPublisher;
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.ack = ack;
+    this.ackTimeout = ackTimeout;
+    this.participantsCache =
+      CacheBuilder
+        .newBuilder()
+        .expireAfterAccess(30, TimeUnit.MINUTES)
+        .maximumSize(100000)
+        .build();
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.flusher =
+      Thread.ofPlatform().name("chat-ingest").daemon().unstarted(this::run);
+    if (enabled) {
+      flusher.start();
+    }
+  }
+
+  /**
+   * Checks if messages are ingested in batches instead of one transaction per message.
+   *
+   * @return  true if batched ingestion is enabled, false otherwise
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Handles the sending of a message by queueing it for the next batch.
+   * Membership is checked against the cached participants of the conversation. Depending on
+   * chat.ingest.ack, the method returns once the message is queued or once it is committed.
+   *
+   * @param  conversationID  the ID of the conversation
+   * @param  newMessageDTO   the DTO containing the details of the message
+   * @return                 the ID of the message
+   * @throws ResponseStatusException if the user is not part of the conversation, the sanitized
+   *                                 message is too long, the queue is full or the message could
+   *                                 not be committed in time
+   */
+  public String handleSendMessage(
+    String conversationID,
+    NewMessageDTO newMessageDTO
+  )
+    throws ResponseStatusException {
+    String senderID = currentUser.getSnapshot().userID();
+    ConversationParticipants participants = getParticipants(conversationID);
+    if (!participants.contains(senderID)) {
+      throw new ResponseStatusException(
+        HttpStatus.FORBIDDEN,
+        "User not part of conversation"
+      );
+    }
+
+    // Sanitizing escapes characters, so the text may no longer fit the column
+    String safeMessage = SanitizationUtil.sanitize(newMessageDTO.message());
+    if (safeMessage.length() > MAX_TEXT_LENGTH) {
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Message is too long"
+      );
+    }
+
+    PendingMessage message = new PendingMessage(
+      UlidCreator.getMonotonicUlid().toString(),
+      safeMessage,
+      System.currentTimeMillis(),
+      senderID,
+      conversationID,
+      participants,
+      new CompletableFuture<>()
+    );
+    if (!queue.offer(message)) {
+      throw new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "Too many messages, try again later"
+      );
+    }
+
+    if (ack == ChatIngestAckEnum.COMMITTED) {
+      awaitCommit(message);
+    }
+    return message.messageID();
+  }
+
+  /**
+   * Stops the flusher when the application stops, after writing the messages left in the queue.
+   */
+  @PreDestroy
+  public void shutdown() {
+    running = false;
+    flusher.interrupt();
+    try {
+      flusher.join(ackTimeout.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<PendingMessage> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    if (!remaining.isEmpty()) {
+      flush(remaining);
+    }
+  }
+
+  /**
+   * Waits until the message has been committed.
+   *
+   * @param  message  the queued message
+   * @throws ResponseStatusException if the message could not be committed in time
+   */
+  private void awaitCommit(PendingMessage message)
+    throws ResponseStatusException {
+    try {
+      message.committed().get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "Message was not saved"
+      );
+    } catch (ExecutionException e) {
+      throw new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "Message was not saved"
+      );
+    } catch (TimeoutException e) {
+      // The message stays queued and may still be saved
+      throw new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "Message could not be confirmed in time"
+      );
+    }
+  }
+
+  /**
+   * Retrieves the participants of a conversation, which never change once it is created.
+   *
+   * @param  conversationID  the ID of the conversation
+   * @return                 the participants of the conversation
+   * @throws ResponseStatusException if the conversation does not exist
+   */
+  private ConversationParticipants getParticipants(String conversationID)
+    throws ResponseStatusException {
+    ConversationParticipants participants = participantsCache.getIfPresent(
+      conversationID
+    );
+    if (participants != null) {
+      return participants;
+    }
+    participants =
+      conversationRepository
+        .findParticipantsByConversationID(conversationID)
+        .orElseThrow(
+          () ->
+            new ResponseStatusException(
+              HttpStatus.NOT_FOUND,
+              "Conversation not found"
+            )
+        );
+    participantsCache.put(conversationID, participants);
+    return participants;
+  }
+
+  /**
+   * Takes messages from the queue and writes them in batches. A batch holds whatever has been
+   * queued while the previous batch was written, so batches grow with the load without adding
+   * latency when the load is low.
+   */
+  private void run() {
+    List<PendingMessage> batch = new ArrayList<>(batchSize);
+    while (running) {
+      try {
+        batch.add(queue.take());
+        queue.drainTo(batch, batchSize - 1);
+        flush(batch);
+      } catch (InterruptedException e) {
+        // Woken up by shutdown, remaining messages are flushed there
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  /**
+   * Writes a batch of messages in one transaction. If the batch fails, every message is
+   * written again in its own transaction, so that one bad message only fails itself.
+   *
+   * @param  batch  the messages to write
+   */
+  private void flush(List<PendingMessage> batch) {
+    try {
+      write(batch);
+    } catch (RuntimeException e) {
+      if (batch.size() == 1) {
+        fail(batch, e);
+        return;
+      }
+      LOGGER.warn(
+        "Failed to write " +
+        batch.size() +
+        " chat messages as a batch, writing them one by one: " +
+        e.getMessage()
+      );
+      for (PendingMessage message : batch) {
+        List<PendingMessage> single = List.of(message);
+        try {
+          write(single);
+        } catch (RuntimeException messageException) {
+          fail(single, messageException);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes messages in one transaction. Messages are inserted with a JDBC batch,
+   * and each conversation gets one update of its last message and unread counts.
+   * Chat events are published once the transaction has committed.
+   *
+   * @param  batch  the messages to write
+   * @throws RuntimeException if the transaction fails, in which case none of the messages are written
+   */
+  private void write(List<PendingMessage> batch) {
+    transactionTemplate.executeWithoutResult(
+      status -> {
+        jdbcTemplate.batchUpdate(
+          INSERT_MESSAGE_SQL,
+          batch,
+          batch.size(),
+          (statement, message) -> {
+            statement.setString(1, message.messageID());
+            statement.setString(2, message.text());
+            statement.setLong(3, message.timeSent());
+            statement.setString(4, message.senderID());
+            statement.setString(5, message.conversationID());
+          }
+        );
+        updateConversations(batch);
+        batch.forEach(
+          message -> eventPublisher.publishEvent(toEvent(message))
+        );
+      }
+    );
+    batch.forEach(message -> message.committed().complete(null));
+  }
+
+  /**
+   * Reports messages that could not be written to the requests waiting for them.
+   *
+   * @param  messages  the messages that were not written
+   * @param  e         the cause of the failure
+   */
+  private static void fail(List<PendingMessage> messages, RuntimeException e) {
+    LOGGER.error("Failed to write " + messages.size() + " chat messages", e);
+    messages.forEach(message -> message.committed().completeExceptionally(e));
+  }
+
+  /**
+   * Updates the last message and the unread counts of the conversations in a batch.
+   * Requests may queue their messages slightly out of ID order, so the newest message is
+   * picked by ID.
+   *
+   * @param  batch  the messages being written
+   */
+  private void updateConversations(List<PendingMessage> batch) {
+    Map<String, PendingMessage> lastByConversation = new LinkedHashMap<>();
+    Map<List<String>, List<PendingMessage>> bySender = new LinkedHashMap<>();
+    for (PendingMessage message : batch) {
+      lastByConversation.merge(
+        message.conversationID(),
+        message,
+        ChatIngestWorkerService::newest
+      );
+      bySender
+        .computeIfAbsent(
+          List.of(message.conversationID(), message.senderID()),
+          key -> new ArrayList<>()
+        )
+        .add(message);
+    }
+
+    jdbcTemplate.batchUpdate(
+      UPDATE_LAST_MESSAGE_SQL,
+      lastByConversation.values(),
+      lastByConversation.size(),
+      (statement, message) -> {
+        statement.setString(1, message.messageID());
+        statement.setString(2, message.conversationID());
+        statement.setString(3, message.messageID());
+      }
+    );
+    for (List<PendingMessage> messages : bySender.values()) {
+      PendingMessage last = messages
+        .stream()
+        .reduce(ChatIngestWorkerService::newest)
+        .orElseThrow();
+      jdbcTemplate.update(
+        UPDATE_RECIPIENT_UNREAD_SQL,
+        messages.size(),
+        last.conversationID(),
+        last.senderID()
+      );
+      jdbcTemplate.update(
+        UPDATE_SENDER_READ_SQL,
+        last.messageID(),
+        last.conversationID(),
+        last.senderID()
+      );
+    }
+  }
+
+  /**
+   * Returns the newest of two messages, based on their monotonic IDs.
+   *
+   * @param  first   the first message
+   * @param  second  the second message
+   * @return         the message with the highest ID
+   */
+  private static PendingMessage newest(
+    PendingMessage first,
+    PendingMessage second
+  ) {
+    return first.messageID().compareTo(second.messageID()) >= 0
+      ? first
+      : second;
+  }
+
+  /**
+   * Creates the chat event of a message for the streams of its participants.
+   *
+   * @param  message  the message
+   * @return          the chat event
+   */
+  private static ChatMessageEvent toEvent(PendingMessage message) {
+    return new ChatMessageEvent(
+      List.of(
+        message.participants().user1ID(),
+        message.participants().user2ID()
+      ),
+      new ChatMessageEventDTO(
+        message.conversationID(),
+        new ChatMessageDTO(
+          message.messageID(),
+          message.text(),
+          message.timeSent(),
+          message.senderID()
+        )
+      )
+    );
+  }
+
+  private record PendingMessage(
+    String messageID,
+    String text,
+    long timeSent,
+    String senderID,
+    String conversationID,
+    ConversationParticipants participants,
+    CompletableFuture<Void> committed
+  ) {}
+}
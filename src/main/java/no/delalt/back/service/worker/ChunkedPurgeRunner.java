@@ -0,0 +1,131 @@
+package no.delalt.back.service.worker;
+
+import no.delalt.back.model.dao.PurgeDAO;
+import no.delalt.back.model.enums.PurgePhase;
+import no.delalt.back.repository.PurgeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Purges the data of deleted entities in chunks, one phase after the other, and records
+ * the progress of every purge so that a failed purge resumes from its current phase.
+ *
+ * @param <P>  the phases of the purge, the last of which marks a finished purge
+ * @param <D>  the entity recording the progress of a purge
+ */
+final class ChunkedPurgeRunner<P extends Enum<P> & PurgePhase, D extends PurgeDAO> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    ChunkedPurgeRunner.class
+  );
+  private final String subject;
+  private final PurgeRepository<D> purgeRepository;
+  private final Class<P> phaseType;
+  private final PurgeFunction<P> purgeFunction;
+  private final TransactionTemplate transactionTemplate;
+  private final long lockKey;
+  private final int chunkSize;
+
+  /**
+   * Deletes up to the given number of rows of one phase of the data of a deleted entity.
+   *
+   * @param <P>  the phases of the purge
+   */
+  @FunctionalInterface
+  interface PurgeFunction<P> {
+    int purge(String id, P phase, int limit);
+  }
+
+  /**
+   * @param  subject              the name of the purged entities, used in log messages
+   * @param  purgeRepository      the repository of the purge progress
+   * @param  phaseType            the enum of the phases of the purge
+   * @param  purgeFunction        the function deleting a chunk of one phase
+   * @param  transactionTemplate  the template running every chunk in its own transaction
+   * @param  lockKey              the key of the advisory lock held while purging
+   * @param  chunkSize            the maximum number of rows deleted per transaction
+   */
+  ChunkedPurgeRunner(
+    String subject,
+    PurgeRepository<D> purgeRepository,
+    Class<P> phaseType,
+    PurgeFunction<P> purgeFunction,
+    TransactionTemplate transactionTemplate,
+    long lockKey,
+    int chunkSize
+  ) {
+    this.subject = subject;
+    this.purgeRepository = purgeRepository;
+    this.phaseType = phaseType;
+    this.purgeFunction = purgeFunction;
+    this.transactionTemplate = transactionTemplate;
+    this.lockKey = lockKey;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Purges the data of the deleted entities whose purge is not done yet, oldest first.
+   * Every chunk is deleted in its own short transaction, so no transaction holds
+   * locks on many rows. A purge that fails is retried from its current phase on the next run.
+   */
+  void purgePending() {
+    for (String id : purgeRepository.findPendingIDs(
+      PurgePhase.done(phaseType).getValue()
+    )) {
+      try {
+        boolean more;
+        do {
+          more = purgeChunk(id);
+        } while (more);
+      } catch (RuntimeException e) {
+        LOGGER.error("Failed to purge the data of " + subject + " " + id, e);
+      }
+    }
+  }
+
+  /**
+   * Deletes the next chunk of the data of an entity and records the progress of the purge.
+   * When several instances run, only the one holding the advisory lock purges.
+   *
+   * @param  id  the ID of the entity
+   * @return     true if there may be more data to purge, false otherwise
+   */
+  private boolean purgeChunk(String id) {
+    Boolean purged = transactionTemplate.execute(
+      status -> {
+        if (!purgeRepository.tryAdvisoryLock(lockKey)) {
+          return false;
+        }
+        D purge = purgeRepository.findById(id).orElse(null);
+        if (purge == null) {
+          return false;
+        }
+        P phase = PurgePhase.fromValue(phaseType, purge.getPhase());
+        if (phase == PurgePhase.done(phaseType)) {
+          return false;
+        }
+
+        int rows = purgeFunction.purge(id, phase, chunkSize);
+        purge.setPurgedRows(purge.getPurgedRows() + rows);
+        purge.setUpdatedAt(System.currentTimeMillis());
+        if (rows < chunkSize) {
+          purge.setPhase(PurgePhase.next(phase).getValue());
+          LOGGER.info(
+            "Purged " +
+            phase +
+            " of " +
+            subject +
+            " " +
+            id +
+            ", " +
+            purge.getPurgedRows() +
+            " rows in total"
+          );
+        }
+        purgeRepository.save(purge);
+        return true;
+      }
+    );
+    return Boolean.TRUE.equals(purged);
+  }
+}
@@ -0,0 +1,44 @@
+package no.delalt.back.service.worker;
+
+import no.delalt.back.model.dao.CommunityPurgeDAO;
+import no.delalt.back.model.enums.CommunityPurgePhaseEnum;
+import no.delalt.back.repository.CommunityPurgeRepository;
+import no.delalt.back.service.deletion.CommunityDeletionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class CommunityPurgeWorkerService {
+  private static final long PURGE_LOCK_KEY = 7_341_003L;
+  private final ChunkedPurgeRunner<CommunityPurgePhaseEnum, CommunityPurgeDAO> runner;
+
+  public CommunityPurgeWorkerService(
+    CommunityPurgeRepository communityPurgeRepository,
+    CommunityDeletionService communityDeletionService,
+    TransactionTemplate transactionTemplate,
+    @Value("${community.deletion.chunk-size:1000}") int chunkSize
+  ) {
+    this.runner =
+      new ChunkedPurgeRunner<>(
+        "community",
+        communityPurgeRepository,
+        CommunityPurgePhaseEnum.class,
+        communityDeletionService::purge,
+        transactionTemplate,
+        PURGE_LOCK_KEY,
+        chunkSize
+      );
+  }
+
+  /**
+   * Purges the data of the deleted communities whose purge is not done yet, oldest first.
+   *
+   * @Scheduled(fixedDelayString = "${community.deletion.purge-interval:PT10S}")
+   */
+  @Scheduled(fixedDelayString = "${community.deletion.purge-interval:PT10S}")
+  public void purgePending() {
+    runner.purgePending();
+  }
+}
@@ -0,0 +1,30 @@
+package no.delalt.back.service.worker;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "expirysweeper")
+public class ExpirySweeperEndpoint {
+  private final ExpirySweeperWorkerService expirySweeperWorkerService;
+
+  public ExpirySweeperEndpoint(
+    ExpirySweeperWorkerService expirySweeperWorkerService
+  ) {
+    this.expirySweeperWorkerService = expirySweeperWorkerService;
+  }
+
+  /**
+   * Retrieves the number of rows flagged by the expiry sweeper per table since the
+   * application started. Served on the management port only, at /actuator/expirysweeper.
+   *
+   * @return  the number of flagged rows by table name
+   */
+  @ReadOperation
+  public Map<String, Long> sweptRows() {
+    return expirySweeperWorkerService.getSweptRows();
+  }
+}
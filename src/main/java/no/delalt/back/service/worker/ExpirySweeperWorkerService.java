@@ -0,0 +1,154 @@
+package no.delalt.back.service.worker;
+
+import no.delalt.back.model.enums.BorrowRequestStatusEnum;
+import no.delalt.back.repository.BorrowRequestRepository;
+import no.delalt.back.repository.GatheringRepository;
+import no.delalt.back.repository.InviteRepository;
+import no.delalt.back.service.GatheringService;
+import no.delalt.back.service.InviteService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+@Service
+public class ExpirySweeperWorkerService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    ExpirySweeperWorkerService.class
+  );
+  private static final long BORROW_REQUEST_LOCK_KEY = 7_341_004L;
+  private static final long INVITE_LOCK_KEY = 7_341_005L;
+  private static final long GATHERING_LOCK_KEY = 7_341_006L;
+  private static final String BORROW_REQUEST_TABLE = "borrow_request";
+  private static final String INVITE_TABLE = "invite";
+  private static final String GATHERING_TABLE = "gathering";
+  private final BorrowRequestRepository borrowRequestRepository;
+  private final InviteRepository inviteRepository;
+  private final GatheringRepository gatheringRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Map<String, AtomicLong> sweptRows = new ConcurrentHashMap<>();
+  private final int chunkSize;
+
+  public ExpirySweeperWorkerService(
+    BorrowRequestRepository borrowRequestRepository,
+    InviteRepository inviteRepository,
+    GatheringRepository gatheringRepository,
+    TransactionTemplate transactionTemplate,
+    @Value("${expiry.sweep.chunk-size:1000}") int chunkSize
+  ) {
+    this.borrowRequestRepository = borrowRequestRepository;
+    this.inviteRepository = inviteRepository;
+    this.gatheringRepository = gatheringRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Flags the borrow requests, invites and gatherings that have expired since the last run.
+   * Pending borrow requests that ended before today are canceled, invites older than the
+   * expiration time are expired, and gatherings that are past are expired.
+   * The reads keep their own expiry checks, so rows that expire between runs are still handled.
+   *
+   * @Scheduled(fixedDelayString = "${expiry.sweep.interval:PT5M}")
+   */
+  @Scheduled(fixedDelayString = "${expiry.sweep.interval:PT5M}")
+  public void sweepExpired() {
+    LocalDate currentDate = LocalDate.now();
+    long inviteCreatedBefore =
+      System.currentTimeMillis() -
+      Duration.ofHours(InviteService.EXPIRATION_IN_HOURS).toMillis();
+    LocalDateTime gatheringBefore = LocalDateTime
+      .now()
+      .minusHours(GatheringService.SERVER_HOUR_OFFSET);
+
+    sweep(
+      BORROW_REQUEST_TABLE,
+      () ->
+        borrowRequestRepository.tryAdvisoryLock(BORROW_REQUEST_LOCK_KEY)
+          ? borrowRequestRepository.cancelEndedBefore(
+            currentDate,
+            BorrowRequestStatusEnum.CANCELED.getValue(),
+            chunkSize
+          )
+          : 0
+    );
+    sweep(
+      INVITE_TABLE,
+      () ->
+        inviteRepository.tryAdvisoryLock(INVITE_LOCK_KEY)
+          ? inviteRepository.expireCreatedBefore(inviteCreatedBefore, chunkSize)
+          : 0
+    );
+    sweep(
+      GATHERING_TABLE,
+      () ->
+        gatheringRepository.tryAdvisoryLock(GATHERING_LOCK_KEY)
+          ? gatheringRepository.expireBefore(gatheringBefore, chunkSize)
+          : 0
+    );
+  }
+
+  /**
+   * Retrieves the number of rows flagged per table since the application started.
+   *
+   * @return  the number of flagged rows by table name
+   */
+  public Map<String, Long> getSweptRows() {
+    Map<String, Long> counts = new HashMap<>();
+    sweptRows.forEach((table, count) -> counts.put(table, count.get()));
+    return counts;
+  }
+
+  /**
+   * Flags the expired rows of a table chunk by chunk, until a chunk is not full.
+   * Every chunk is flagged in its own short transaction, so no transaction holds
+   * locks on many rows. When several instances run, only the one holding the advisory lock
+   * of the table flags its rows, and rows locked by other transactions are left for the next run.
+   *
+   * @param  table  the name of the table, used for the metrics
+   * @param  chunk  flags the next chunk if the lock is held, and returns the number of flagged rows
+   */
+  private void sweep(String table, IntSupplier chunk) {
+    long start = System.nanoTime();
+    long total = 0;
+    try {
+      int rows;
+      do {
+        Integer flagged = transactionTemplate.execute(
+          status -> chunk.getAsInt()
+        );
+        rows = flagged != null ? flagged : 0;
+        total += rows;
+      } while (rows >= chunkSize);
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to sweep the expired rows of " + table, e);
+    }
+
+    long swept = sweptRows
+      .computeIfAbsent(table, key -> new AtomicLong())
+      .addAndGet(total);
+    if (total > 0) {
+      LOGGER.info(
+        "Swept " +
+        table +
+        ": flagged=" +
+        total +
+        ", millis=" +
+        (System.nanoTime() - start) / 1_000_000 +
+        ", total=" +
+        swept
+      );
+    }
+  }
+}
@@ -0,0 +1,280 @@
+package no.delalt.back.service.worker;
+
+import jakarta.annotation.PreDestroy;
+import no.delalt.back.model.enums.ImageSizeEnum;
+import no.delalt.back.storage.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class ImageVariantWorkerService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    ImageVariantWorkerService.class
+  );
+  private static final float JPEG_QUALITY = 0.85f;
+  private static final int LARGEST_VARIANT = Arrays
+    .stream(ImageSizeEnum.values())
+    .mapToInt(ImageSizeEnum::getValue)
+    .max()
+    .orElseThrow();
+  private final ImageStore imageStore;
+  private final ThreadPoolExecutor executor;
+  private final Set<String> pendingContentHashes = ConcurrentHashMap.newKeySet();
+  private final long maxSourcePixels;
+
+  public ImageVariantWorkerService(
+    ImageStore imageStore,
+    @Value("${image.variant.threads:2}") int threads,
+    @Value("${image.variant.queue-capacity:200}") int queueCapacity,
+    @Value("${image.variant.max-source-pixels:64000000}") long maxSourcePixels
+  ) {
+    this.imageStore = imageStore;
+    this.maxSourcePixels = maxSourcePixels;
+    this.executor =
+      new ThreadPoolExecutor(
+        threads,
+        threads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        Thread.ofPlatform().name("image-variant-", 0).daemon().factory()
+      );
+  }
+
+  /**
+   * Schedules generation of all missing size variants of an image.
+   * An image is only scheduled once at a time, and the request is dropped if the queue is full,
+   * in which case it is scheduled again the next time a variant is requested.
+   *
+   * @param  contentHash  the content hash of the original image
+   */
+  public void generateVariantsAsync(String contentHash) {
+    if (!pendingContentHashes.add(contentHash)) {
+      return;
+    }
+    try {
+      executor.execute(
+        () -> {
+          try {
+            generateVariants(contentHash);
+          } finally {
+            pendingContentHashes.remove(contentHash);
+          }
+        }
+      );
+    } catch (RejectedExecutionException e) {
+      pendingContentHashes.remove(contentHash);
+      LOGGER.warn("Image variant queue is full, skipped " + contentHash);
+    }
+  }
+
+  /**
+   * Shuts down the executor when the application stops.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Decodes the original image and stores a JPEG variant for each size that is missing.
+   * Sizes that are at least as large as the original are stored as a re-encoded copy,
+   * so that every variant exists once generation is done.
+   *
+   * @param  contentHash  the content hash of the original image
+   */
+  private void generateVariants(String contentHash) {
+    try {
+      BufferedImage original = decode(contentHash);
+      if (original == null) {
+        return;
+      }
+
+      for (ImageSizeEnum size : ImageSizeEnum.values()) {
+        if (imageStore.variantExists(contentHash, size.getValue())) {
+          continue;
+        }
+        BufferedImage resized = resize(original, size.getValue());
+        imageStore.storeVariant(
+          contentHash,
+          size.getValue(),
+          encodeJpeg(resized)
+        );
+      }
+    } catch (Exception e) {
+      LOGGER.error("Failed to generate variants for image " + contentHash, e);
+    }
+  }
+
+  /**
+   * Decodes the original image. The dimensions declared by the image are checked before
+   * it is decoded, so that a small file declaring a huge image can not exhaust the memory.
+   * Large images are subsampled while they are decoded, down to twice the largest variant.
+   *
+   * @param  contentHash  the content hash of the original image
+   * @return              the decoded image, or null if it can not be decoded or is too large
+   * @throws IOException if the image can not be read
+   */
+  private BufferedImage decode(String contentHash) throws IOException {
+    try (
+      InputStream inputStream = imageStore.load(contentHash).getInputStream();
+      ImageInputStream imageInputStream = ImageIO.createImageInputStream(
+        inputStream
+      )
+    ) {
+      Iterator<ImageReader> readers = imageInputStream != null
+        ? ImageIO.getImageReaders(imageInputStream)
+        : null;
+      if (readers == null || !readers.hasNext()) {
+        LOGGER.warn("Image " + contentHash + " could not be decoded");
+        return null;
+      }
+
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(imageInputStream, true, true);
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if ((long) width * height > maxSourcePixels) {
+          LOGGER.warn(
+            "Image " +
+            contentHash +
+            " is too large for variants: " +
+            width +
+            "x" +
+            height
+          );
+          return null;
+        }
+
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = Math.max(
+          1,
+          Math.max(width, height) / (2 * LARGEST_VARIANT)
+        );
+        if (subsampling > 1) {
+          param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Scales an image so that its longest side is at most the given size.
+   * The image is halved in steps before the final scale to keep the quality close
+   * to area averaging at a fraction of the cost.
+   *
+   * @param  original  the image to scale
+   * @param  size      the maximum length of the longest side in pixels
+   * @return           the scaled image without an alpha channel
+   */
+  private static BufferedImage resize(BufferedImage original, int size) {
+    int longestSide = Math.max(original.getWidth(), original.getHeight());
+    double scale = Math.min(1.0, (double) size / longestSide);
+    int targetWidth = Math.max(1, (int) Math.round(original.getWidth() * scale));
+    int targetHeight = Math.max(
+      1,
+      (int) Math.round(original.getHeight() * scale)
+    );
+
+    BufferedImage current = original;
+    int width = original.getWidth();
+    int height = original.getHeight();
+
+    do {
+      width = Math.max(targetWidth, width / 2);
+      height = Math.max(targetHeight, height / 2);
+      current = draw(current, width, height);
+    } while (width != targetWidth || height != targetHeight);
+
+    return current;
+  }
+
+  /**
+   * Draws an image onto a new RGB image of the given dimensions.
+   *
+   * @param  source  the image to draw
+   * @param  width   the width of the new image
+   * @param  height  the height of the new image
+   * @return         the new image
+   */
+  private static BufferedImage draw(BufferedImage source, int width, int height) {
+    BufferedImage target = new BufferedImage(
+      width,
+      height,
+      BufferedImage.TYPE_INT_RGB
+    );
+    Graphics2D graphics = target.createGraphics();
+    try {
+      graphics.setRenderingHint(
+        RenderingHints.KEY_INTERPOLATION,
+        RenderingHints.VALUE_INTERPOLATION_BILINEAR
+      );
+      graphics.setRenderingHint(
+        RenderingHints.KEY_RENDERING,
+        RenderingHints.VALUE_RENDER_QUALITY
+      );
+      graphics.drawImage(source, 0, 0, width, height, null);
+    } finally {
+      graphics.dispose();
+    }
+    return target;
+  }
+
+  /**
+   * Encodes an image as JPEG.
+   *
+   * @param  image  the image to encode
+   * @return        the bytes of the JPEG
+   * @throws IOException  if the image can not be encoded
+   */
+  private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    try (
+      ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(
+        outputStream
+      )
+    ) {
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(JPEG_QUALITY);
+
+      writer.setOutput(imageOutputStream);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+
+    return outputStream.toByteArray();
+  }
+}
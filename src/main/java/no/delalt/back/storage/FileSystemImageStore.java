@@ -0,0 +1,246 @@
+package no.delalt.back.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+@Component
+public class FileSystemImageStore implements ImageStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    FileSystemImageStore.class
+  );
+  private static final Pattern CONTENT_HASH_PATTERN = Pattern.compile(
+    "^[0-9a-f]{64}$"
+  );
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+  private static final String VARIANT_SEPARATOR = "-";
+  private final Path rootDirectory;
+
+  public FileSystemImageStore(
+    @Value("${image.store.path:./images}") String rootDirectory
+  ) {
+    this.rootDirectory = Paths.get(rootDirectory).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Stores the image content on disk under its SHA-256 hash.
+   * Identical content is only written once.
+   *
+   * @param  content  the bytes of the image
+   * @return          the SHA-256 hash of the content as lowercase hex
+   */
+  @Override
+  public String store(byte[] content) {
+    String contentHash = hash(content);
+    Path target = resolve(contentHash);
+
+    if (!Files.exists(target)) {
+      write(target, contentHash, content);
+    }
+
+    return contentHash;
+  }
+
+  /**
+   * Loads the image content as a file resource, which is streamed from disk
+   * through its file channel instead of being read into memory.
+   *
+   * @param  contentHash  the SHA-256 hash of the content
+   * @return              the file resource of the image
+   * @throws ResponseStatusException if the content does not exist
+   */
+  @Override
+  public Resource load(String contentHash) throws ResponseStatusException {
+    return loadPath(resolve(contentHash));
+  }
+
+  /**
+   * Checks if content with the given hash exists on disk.
+   *
+   * @param  contentHash  the SHA-256 hash of the content
+   * @return              true if the content exists, false otherwise
+   */
+  @Override
+  public boolean exists(String contentHash) {
+    return Files.exists(resolve(contentHash));
+  }
+
+  /**
+   * Deletes the content with the given hash and its variants from disk, if they exist.
+   *
+   * @param  contentHash  the SHA-256 hash of the content
+   */
+  @Override
+  public void delete(String contentHash) {
+    Path path = resolve(contentHash);
+    try {
+      Files.deleteIfExists(path);
+      try (
+        DirectoryStream<Path> variants = Files.newDirectoryStream(
+          path.getParent(),
+          contentHash + VARIANT_SEPARATOR + "*"
+        )
+      ) {
+        for (Path variant : variants) {
+          Files.deleteIfExists(variant);
+        }
+      }
+    } catch (NoSuchFileException e) {
+      // Nothing was stored in the directory of the content
+    } catch (IOException e) {
+      LOGGER.warn("Failed to delete image " + contentHash, e);
+    }
+  }
+
+  /**
+   * Stores a resized variant next to the original content on disk.
+   *
+   * @param  contentHash  the SHA-256 hash of the original content
+   * @param  size         the length of the longest side of the variant in pixels
+   * @param  content      the bytes of the variant
+   */
+  @Override
+  public void storeVariant(String contentHash, int size, byte[] content) {
+    write(resolveVariant(contentHash, size), contentHash, content);
+  }
+
+  /**
+   * Loads a resized variant as a file resource.
+   *
+   * @param  contentHash  the SHA-256 hash of the original content
+   * @param  size         the length of the longest side of the variant in pixels
+   * @return              the file resource of the variant
+   * @throws ResponseStatusException if the variant does not exist
+   */
+  @Override
+  public Resource loadVariant(String contentHash, int size)
+    throws ResponseStatusException {
+    return loadPath(resolveVariant(contentHash, size));
+  }
+
+  /**
+   * Checks if a resized variant exists on disk.
+   *
+   * @param  contentHash  the SHA-256 hash of the original content
+   * @param  size         the length of the longest side of the variant in pixels
+   * @return              true if the variant exists, false otherwise
+   */
+  @Override
+  public boolean variantExists(String contentHash, int size) {
+    return Files.exists(resolveVariant(contentHash, size));
+  }
+
+  /**
+   * Writes content to the target path through a temporary file, so readers
+   * never observe a partially written file.
+   *
+   * @param  target       the path to write to
+   * @param  contentHash  the SHA-256 hash of the content, used for logging
+   * @param  content      the bytes to write
+   */
+  private static void write(Path target, String contentHash, byte[] content) {
+    try {
+      Files.createDirectories(target.getParent());
+      Path temporary = Files.createTempFile(
+        target.getParent(),
+        contentHash,
+        TEMPORARY_SUFFIX
+      );
+      try {
+        Files.write(temporary, content);
+        Files.move(
+          temporary,
+          target,
+          StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING
+        );
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException e) {
+      LOGGER.error("Failed to store image " + contentHash, e);
+      throw new ResponseStatusException(
+        HttpStatus.INTERNAL_SERVER_ERROR,
+        "Something went wrong."
+      );
+    }
+  }
+
+  /**
+   * Returns a file resource for the given path.
+   *
+   * @param  path  the path of the file
+   * @return       the file resource
+   * @throws ResponseStatusException if the file does not exist
+   */
+  private static Resource loadPath(Path path) throws ResponseStatusException {
+    if (!Files.isReadable(path)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found");
+    }
+    return new FileSystemResource(path);
+  }
+
+  /**
+   * Resolves the path of the content with the given hash.
+   * Files are spread over two levels of directories to keep them small.
+   *
+   * @param  contentHash  the SHA-256 hash of the content
+   * @return              the path of the content
+   */
+  private Path resolve(String contentHash) {
+    if (
+      contentHash == null || !CONTENT_HASH_PATTERN.matcher(contentHash).matches()
+    ) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found");
+    }
+    return rootDirectory
+      .resolve(contentHash.substring(0, 2))
+      .resolve(contentHash.substring(2, 4))
+      .resolve(contentHash);
+  }
+
+  /**
+   * Resolves the path of a resized variant, which is stored next to the original.
+   *
+   * @param  contentHash  the SHA-256 hash of the original content
+   * @param  size         the length of the longest side of the variant in pixels
+   * @return              the path of the variant
+   */
+  private Path resolveVariant(String contentHash, int size) {
+    return resolve(contentHash)
+      .resolveSibling(contentHash + VARIANT_SEPARATOR + size);
+  }
+
+  /**
+   * Calculates the SHA-256 hash of the given content.
+   *
+   * @param  content  the content to hash
+   * @return          the hash as lowercase hex
+   */
+  private static String hash(byte[] content) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      return HexFormat.of().formatHex(digest.digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+    }
+  }
+}
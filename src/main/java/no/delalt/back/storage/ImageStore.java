@@ -0,0 +1,64 @@
+package no.delalt.back.storage;
+
+import org.springframework.core.io.Resource;
+
+public interface ImageStore {
+  /**
+   * Stores the given image content and returns the key it can be loaded by.
+   * Storing the same content twice returns the same key without writing it again.
+   *
+   * @param  content  the bytes of the image
+   * @return          the content hash identifying the stored image
+   */
+  String store(byte[] content);
+
+  /**
+   * Loads the image content stored under the given content hash.
+   *
+   * @param  contentHash  the content hash returned by {@link #store(byte[])}
+   * @return              a resource that streams the image content
+   */
+  Resource load(String contentHash);
+
+  /**
+   * Checks if image content is stored under the given content hash.
+   *
+   * @param  contentHash  the content hash to check
+   * @return              true if the content exists, false otherwise
+   */
+  boolean exists(String contentHash);
+
+  /**
+   * Deletes the image content stored under the given content hash, including its variants.
+   *
+   * @param  contentHash  the content hash of the content to delete
+   */
+  void delete(String contentHash);
+
+  /**
+   * Stores a resized variant of the image content stored under the given content hash.
+   *
+   * @param  contentHash  the content hash of the original image
+   * @param  size         the length of the longest side of the variant in pixels
+   * @param  content      the bytes of the variant
+   */
+  void storeVariant(String contentHash, int size, byte[] content);
+
+  /**
+   * Loads a resized variant of the image content stored under the given content hash.
+   *
+   * @param  contentHash  the content hash of the original image
+   * @param  size         the length of the longest side of the variant in pixels
+   * @return              a resource that streams the variant
+   */
+  Resource loadVariant(String contentHash, int size);
+
+  /**
+   * Checks if a resized variant of the image content exists.
+   *
+   * @param  contentHash  the content hash of the original image
+   * @param  size         the length of the longest side of the variant in pixels
+   * @return              true if the variant exists, false otherwise
+   */
+  boolean variantExists(String contentHash, int size);
+}
@@ -0,0 +1,156 @@
+package no.delalt.back.repository;
+
+import no.delalt.back.AbstractContainerBaseTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CommunityRepositoryBenchmarkTest
+  extends AbstractContainerBaseTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(
+    CommunityRepositoryBenchmarkTest.class
+  );
+  private static final String COMMUNITY_ID_PREFIX = "bench";
+  private static final int COMMUNITY_COUNT = 100_000;
+  private static final int RUNS = 50;
+  private static final double X = 10.75;
+  private static final double Y = 59.91;
+  private static final double DISTANCE_IN_METERS = 5000;
+  private static final long MAX_AVERAGE_MICROS = 50_000;
+
+  @Autowired
+  private CommunityRepository communityRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  @DynamicPropertySource
+  static void databaseProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgisContainer::getJdbcUrl);
+    registry.add("spring.datasource.username", postgisContainer::getUsername);
+    registry.add("spring.datasource.password", postgisContainer::getPassword);
+  }
+
+  @BeforeAll
+  public void seedCommunities() {
+    // Communities spread over roughly 110 x 110 km around Oslo
+    jdbcTemplate.update(
+      "INSERT INTO public.community (community_id, name, visibility, coordinates) " +
+      "SELECT ? || lpad(CAST(g AS VARCHAR), 16, '0'), 'Community ' || g, 2, " +
+      "ST_SetSRID(ST_MakePoint(9.75 + random() * 2, 59.41 + random()), 4326) " +
+      "FROM generate_series(1, ?) g ON CONFLICT DO NOTHING",
+      COMMUNITY_ID_PREFIX,
+      COMMUNITY_COUNT
+    );
+    jdbcTemplate.execute("ANALYZE public.community");
+  }
+
+  @AfterAll
+  public void removeCommunities() {
+    // The container is shared with the other tests
+    jdbcTemplate.update(
+      "DELETE FROM public.community WHERE community_id LIKE ?",
+      COMMUNITY_ID_PREFIX + "%"
+    );
+    jdbcTemplate.execute("ANALYZE public.community");
+  }
+
+  @Test
+  public void whenFindNearbyCommunities_thenGeographyIndexIsUsed()
+    throws NoSuchMethodException {
+    String sql = CommunityRepository.class
+      .getMethod(
+        "findNearbyCommunities",
+        double.class,
+        double.class,
+        double.class,
+        String.class
+      )
+      .getAnnotation(Query.class)
+      .value();
+    MapSqlParameterSource parameters = new MapSqlParameterSource()
+      .addValue("x", X)
+      .addValue("y", Y)
+      .addValue("distanceInMeters", DISTANCE_IN_METERS)
+      .addValue("userID", "nonexistentuser000000");
+
+    List<String> plan = namedParameterJdbcTemplate.queryForList(
+      "EXPLAIN (ANALYZE, BUFFERS) " + sql,
+      parameters,
+      String.class
+    );
+    String planText = String.join("\n", plan);
+    LOGGER.info("Plan of findNearbyCommunities:\n" + planText);
+
+    assertTrue(
+      planText.contains("community_coordinates_geography_idx"),
+      "Expected the geography index in the plan:\n" + planText
+    );
+  }
+
+  @Test
+  public void whenFindNearbyCommunities_thenLatencyIsReported() {
+    // Warm up the connection, the plan cache and the shared buffers
+    for (int i = 0; i < RUNS; i++) {
+      communityRepository.findNearbyCommunities(
+        X,
+        Y,
+        DISTANCE_IN_METERS,
+        "nonexistentuser000000"
+      );
+    }
+
+    long start = System.nanoTime();
+    int found = 0;
+    for (int i = 0; i < RUNS; i++) {
+      found =
+        communityRepository
+          .findNearbyCommunities(X, Y, DISTANCE_IN_METERS, "nonexistentuser000000")
+          .size();
+    }
+    long averageMicros = (System.nanoTime() - start) / RUNS / 1000;
+    LOGGER.info(
+      "findNearbyCommunities over " +
+      COMMUNITY_COUNT +
+      " communities: " +
+      found +
+      " found, " +
+      averageMicros +
+      " us on average"
+    );
+
+    assertTrue(found > 0);
+    assertTrue(
+      averageMicros <= MAX_AVERAGE_MICROS,
+      "Expected findNearbyCommunities to take at most " +
+      MAX_AVERAGE_MICROS +
+      " us on average, took " +
+      averageMicros +
+      " us"
+    );
+  }
+}
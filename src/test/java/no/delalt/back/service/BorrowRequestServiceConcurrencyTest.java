@@ -0,0 +1,204 @@
+package no.delalt.back.service;
+
+import no.delalt.back.AbstractContainerBaseTest;
+import no.delalt.back.model.enums.BorrowRequestStatusEnum;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BorrowRequestServiceConcurrencyTest
+  extends AbstractContainerBaseTest {
+  private static final int THREADS = 8;
+  private static final String OWNER_ID = "concurrencyowner00000";
+  private static final String REQUESTER_ID = "concurrencyuser000000";
+  private static final String HASH =
+    "Ge7Y9frKWdgKcAysHdYCIoOOsAcn9We3f2+C74xlc6kWQZn2scBE8sEf4iZezwsmG/KdeeEuspZD9Q4Ojt27Hg==";
+
+  @Autowired
+  private BorrowRequestService borrowRequestService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @DynamicPropertySource
+  static void databaseProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgisContainer::getJdbcUrl);
+    registry.add("spring.datasource.username", postgisContainer::getUsername);
+    registry.add("spring.datasource.password", postgisContainer::getPassword);
+  }
+
+  @BeforeAll
+  public void seedUsers() {
+    for (String userID : List.of(OWNER_ID, REQUESTER_ID)) {
+      jdbcTemplate.update(
+        "INSERT INTO public.account (user_id, email, first_name, last_name, coordinates, last_location_update, hash) " +
+        "VALUES (?, ?, 'test', 'user', ST_GeomFromText('POINT(10.75 59.91)', 4326), '2023-12-03', ?) " +
+        "ON CONFLICT DO NOTHING",
+        userID,
+        userID + "@email.com",
+        HASH
+      );
+    }
+  }
+
+  @Test
+  public void whenOverlappingRequestsAreAcceptedInParallel_thenExactlyOneWins()
+    throws Exception {
+    String itemID = seedItem("concurrencyitem000001");
+    List<String> requestIDs = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      requestIDs.add(
+        seedPendingRequest("concurrencyreq0000" + (100 + i), itemID, i)
+      );
+    }
+
+    List<Throwable> failures = acceptInParallel(requestIDs);
+
+    assertExactlyOneWinner(itemID, failures);
+  }
+
+  @Test
+  public void whenSameRequestIsAcceptedInParallel_thenExactlyOneWins()
+    throws Exception {
+    String itemID = seedItem("concurrencyitem000002");
+    String requestID = seedPendingRequest("concurrencyreq0000200", itemID, 0);
+    List<String> requestIDs = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      requestIDs.add(requestID);
+    }
+
+    List<Throwable> failures = acceptInParallel(requestIDs);
+
+    assertExactlyOneWinner(itemID, failures);
+  }
+
+  /**
+   * Accepts the given requests as the owner, all threads starting at the same time.
+   *
+   * @param  requestIDs  the IDs of the requests to accept, one per thread
+   * @return             the exceptions of the accepts that failed
+   */
+  private List<Throwable> acceptInParallel(List<String> requestIDs)
+    throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(requestIDs.size());
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Throwable>> results = new ArrayList<>();
+    for (String requestID : requestIDs) {
+      results.add(
+        executor.submit(
+          () -> {
+            SecurityContextHolder
+              .getContext()
+              .setAuthentication(
+                new PreAuthenticatedAuthenticationToken(
+                  OWNER_ID,
+                  null,
+                  List.of(new SimpleGrantedAuthority("USER"))
+                )
+              );
+            try {
+              start.await();
+              borrowRequestService.acceptBorrowRequest(requestID);
+              return null;
+            } catch (Throwable e) {
+              return e;
+            } finally {
+              SecurityContextHolder.clearContext();
+            }
+          }
+        )
+      );
+    }
+    start.countDown();
+
+    List<Throwable> failures = new ArrayList<>();
+    for (Future<Throwable> result : results) {
+      Throwable failure = result.get(30, TimeUnit.SECONDS);
+      if (failure != null) {
+        failures.add(failure);
+      }
+    }
+    executor.shutdown();
+    return failures;
+  }
+
+  private void assertExactlyOneWinner(String itemID, List<Throwable> failures) {
+    assertEquals(THREADS - 1, failures.size());
+    for (Throwable failure : failures) {
+      ResponseStatusException exception = assertInstanceOf(
+        ResponseStatusException.class,
+        failure
+      );
+      assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+    }
+    assertEquals(
+      1,
+      jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM public.borrow_agreement WHERE item_id = ?",
+        Integer.class,
+        itemID
+      )
+    );
+    assertEquals(
+      1,
+      jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM public.borrow_request WHERE item_id = ? AND status = ?",
+        Integer.class,
+        itemID,
+        BorrowRequestStatusEnum.ACCEPTED.getValue()
+      )
+    );
+  }
+
+  private String seedItem(String itemID) {
+    jdbcTemplate.update(
+      "INSERT INTO public.item (item_id, title, user_id, is_for_giving, is_deleted, created_at) " +
+      "VALUES (?, 'Drill', ?, false, false, 0)",
+      itemID,
+      OWNER_ID
+    );
+    return itemID;
+  }
+
+  private String seedPendingRequest(String requestID, String itemID, int offset) {
+    LocalDate startDate = LocalDate.now().plusDays(10 + offset);
+    jdbcTemplate.update(
+      "INSERT INTO public.borrow_request (borrow_request_id, item_id, requester_id, owner_id, " +
+      "created_at, start_date, end_date, status, is_processed) VALUES (?, ?, ?, ?, 0, ?, ?, ?, false)",
+      requestID,
+      itemID,
+      REQUESTER_ID,
+      OWNER_ID,
+      startDate,
+      startDate.plusDays(THREADS + 1),
+      BorrowRequestStatusEnum.PENDING.getValue()
+    );
+    return requestID;
+  }
+}